@@ -0,0 +1,101 @@
+package com.test.engine;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// How much an exploration may spend: wall time and driver commands (counted in Metrics.run(),
+// so parallel workers draw from the same pool). Within that, each screen gets an allowance
+// that shrinks when it stops paying off: after `patience` taps in a row that found nothing
+// new, or once it has used `share` of the whole budget, its remaining elements are skipped.
+public class Budget {
+
+    private final long timeMs;
+    private final long commands;
+    private final int patience;
+    private final double share;
+
+    private long startedAt;
+    private long commandsAtStart;
+    private final Map<String, ScreenSpend> screens = new HashMap<>();
+
+    public Budget(long timeMs, long commands, int patience, double share) {
+        this.timeMs = timeMs;
+        this.commands = commands;
+        this.patience = patience;
+        this.share = share;
+    }
+
+    // explorer.minutes, explorer.commands (0 = no limit), explorer.patience, explorer.screenShare
+    public static Budget fromProperties() {
+        return new Budget(
+            (long) (Double.parseDouble(Session.property("explorer.minutes", "5")) * 60_000),
+            Long.parseLong(Session.property("explorer.commands", "0")),
+            Integer.parseInt(Session.property("explorer.patience", "8")),
+            Double.parseDouble(Session.property("explorer.screenShare", "0.25")));
+    }
+
+    public Budget withTime(long ms) {
+        return new Budget(ms, commands, patience, share);
+    }
+
+    public Budget withCommands(long limit) {
+        return new Budget(timeMs, limit, patience, share);
+    }
+
+    public synchronized void start() {
+        startedAt = System.currentTimeMillis();
+        commandsAtStart = Metrics.run().commands();
+        screens.clear();
+    }
+
+    public long deadline() {
+        return startedAt + timeMs;
+    }
+
+    public long commandsUsed() {
+        return Metrics.run().commands() - commandsAtStart;
+    }
+
+    // Why the run has to stop, or null while there is budget left
+    public String exhausted() {
+        if (System.currentTimeMillis() >= deadline()) return "time limit of " + (timeMs / 1000) + "s reached";
+        if (commands > 0 && commandsUsed() >= commands) return "command limit of " + commands + " reached";
+        return null;
+    }
+
+    // False once the screen has gone `patience` taps without yield or used up its share
+    public synchronized boolean allows(String screenId) {
+        ScreenSpend spend = screens.get(screenId);
+        if (spend == null) return true;
+        if (spend.barren >= patience) return false;
+        if (spend.ms > timeMs * share) return false;
+        return commands <= 0 || spend.commands <= commands * share;
+    }
+
+    // Charge one tap on a screen; yielded = it found a new screen or new elements
+    public synchronized void charge(String screenId, long ms, long commandsSpent, boolean yielded) {
+        ScreenSpend spend = screens.computeIfAbsent(screenId, k -> new ScreenSpend());
+        spend.ms += ms;
+        spend.commands += commandsSpent;
+        spend.barren = yielded ? 0 : spend.barren + 1;
+    }
+
+    public synchronized String summary() {
+        long barrenScreens = screens.values().stream().filter(s -> s.barren >= patience).count();
+        return "Budget: " + (System.currentTimeMillis() - startedAt) / 1000 + "s of " + timeMs / 1000 + "s, "
+            + commandsUsed() + (commands > 0 ? " of " + commands : "") + " commands, "
+            + screens.size() + " screens tapped, " + barrenScreens + " cut off as unproductive";
+    }
+
+    @Override
+    public String toString() {
+        return (timeMs / 1000) + "s" + (commands > 0 ? ", " + commands + " commands" : "")
+            + ", patience " + patience;
+    }
+
+    private static final class ScreenSpend {
+        int barren;
+        long ms;
+        long commands;
+    }
+}
@@ -0,0 +1,77 @@
+package com.test.engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BudgetTest {
+
+    @Test
+    void screenIsCutOffAfterPatienceTapsWithoutYield() {
+        Budget budget = new Budget(60_000, 0, 3, 1.0);
+        budget.start();
+
+        budget.charge("Home", 10, 2, false);
+        budget.charge("Home", 10, 2, false);
+        assertThat(budget.allows("Home")).isTrue();
+        // A tap that finds something starts the count over
+        budget.charge("Home", 10, 2, true);
+        budget.charge("Home", 10, 2, false);
+        budget.charge("Home", 10, 2, false);
+        assertThat(budget.allows("Home")).isTrue();
+        budget.charge("Home", 10, 2, false);
+
+        assertThat(budget.allows("Home")).isFalse();
+        assertThat(budget.allows("Cart")).isTrue();
+        assertThat(budget.summary()).contains("1 screens tapped, 1 cut off as unproductive");
+    }
+
+    @Test
+    void screenIsCutOffOnceItUsedItsShare() {
+        Budget budget = new Budget(1000, 100, 100, 0.25);
+        budget.start();
+
+        budget.charge("Home", 250, 1, true);
+        assertThat(budget.allows("Home")).isTrue();
+        budget.charge("Home", 1, 1, true);
+        assertThat(budget.allows("Home")).isFalse();
+
+        budget.charge("Cart", 1, 26, true);
+        assertThat(budget.allows("Cart")).isFalse();
+    }
+
+    @Test
+    void runStopsAtTheTimeLimit() {
+        Budget budget = new Budget(60_000, 0, 8, 0.25).withTime(0);
+        budget.start();
+
+        assertThat(budget.exhausted()).isEqualTo("time limit of 0s reached");
+    }
+
+    @Test
+    void runStopsAtTheCommandLimit() {
+        Budget budget = new Budget(60_000, 0, 8, 0.25).withCommands(2);
+        budget.start();
+        assertThat(budget.exhausted()).isNull();
+
+        Metrics.run().record("click", 1_000_000);
+        Metrics.run().record("settle", 1_000_000);
+        assertThat(budget.exhausted()).isNull();
+        Metrics.run().record("findElement", 1_000_000);
+
+        assertThat(budget.commandsUsed()).isEqualTo(2);
+        assertThat(budget.exhausted()).isEqualTo("command limit of 2 reached");
+    }
+
+    @Test
+    void startForgetsEarlierScreens() {
+        Budget budget = new Budget(60_000, 0, 1, 1.0);
+        budget.start();
+        budget.charge("Home", 10, 1, false);
+        assertThat(budget.allows("Home")).isFalse();
+
+        budget.start();
+
+        assertThat(budget.allows("Home")).isTrue();
+    }
+}
@@ -0,0 +1,89 @@
+package com.test.engine;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+// Snapshot of an exploration in progress: the graph (graph.tsv, GraphStore format) plus
+// the explorer's own progress in state.tsv:
+//   X key                visited screen state
+//   R message            recorded error
+//   A key                element being tapped when the checkpoint was taken
+//   T from elem to       path to the screen of the last element taken
+//   C key count          crashes recorded for a tap
+public class Checkpoint {
+
+    private final Path dir;
+    private final GraphStore graph;
+
+    public final Set<String> visitedScreens = new LinkedHashSet<>();
+    public final List<String> errors = new ArrayList<>();
+    public final List<String> openElements = new ArrayList<>();
+    public final List<Explorer.NavigationStep> currentPath = new ArrayList<>();
+    public final Map<String, Integer> crashes = new LinkedHashMap<>();
+
+    public Checkpoint(Path dir) {
+        this.dir = dir;
+        this.graph = new GraphStore(dir.resolve("graph.tsv"));
+    }
+
+    public Path dir() {
+        return dir;
+    }
+
+    public boolean exists() {
+        return graph.exists() && Files.exists(dir.resolve("state.tsv"));
+    }
+
+    public void save(Map<String, Explorer.ScreenNode> screenGraph, Set<String> visitedElements,
+                     Fingerprint.Index screens) {
+        graph.save(screenGraph, visitedElements, screens);
+        Path state = dir.resolve("state.tsv");
+        Path tmp = dir.resolve("state.tsv.tmp");
+        try (BufferedWriter out = Files.newBufferedWriter(tmp)) {
+            for (String key : visitedScreens) GraphStore.write(out, "X", key);
+            for (String error : errors) GraphStore.write(out, "R", error);
+            for (String key : openElements) GraphStore.write(out, "A", key);
+            for (Explorer.NavigationStep step : currentPath) {
+                GraphStore.write(out, "T", step.fromScreen, step.elementTapped, step.toScreen);
+            }
+            for (Map.Entry<String, Integer> crash : crashes.entrySet()) {
+                GraphStore.write(out, "C", crash.getKey(), String.valueOf(crash.getValue()));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot write checkpoint to " + dir, e);
+        }
+        try {
+            Files.move(tmp, state, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot write checkpoint to " + dir, e);
+        }
+    }
+
+    public void load(Map<String, Explorer.ScreenNode> screenGraph, Ids ids, Set<String> visitedElements,
+                     Fingerprint.Index screens) {
+        graph.load(screenGraph, ids, visitedElements, screens);
+        try (BufferedReader in = Files.newBufferedReader(dir.resolve("state.tsv"))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isEmpty()) continue;
+                String[] f = line.split("\t", -1);
+                for (int i = 0; i < f.length; i++) f[i] = GraphStore.unescape(f[i]);
+                switch (f[0]) {
+                    case "X" -> visitedScreens.add(f[1]);
+                    case "R" -> errors.add(f[1]);
+                    case "A" -> openElements.add(f[1]);
+                    case "T" -> currentPath.add(new Explorer.NavigationStep(f[1], f[2], f[3]));
+                    case "C" -> crashes.put(f[1], Integer.parseInt(f[2]));
+                    default -> { }
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot read checkpoint from " + dir, e);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.test.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.assertj.core.api.Assertions.tuple;
+
+class CheckpointTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripKeepsProgress() {
+        Map<String, Explorer.ScreenNode> graph = new HashMap<>();
+        GraphStoreTest.node(graph, new Ids(), "Home#1").markRoot();
+
+        Checkpoint saved = new Checkpoint(dir);
+        saved.visitedScreens.add("Home#1");
+        saved.errors.add("APP CRASH #1\tdetected");
+        saved.openElements.add("Home#1|loginBtn|Button|1");
+        saved.currentPath.add(new Explorer.NavigationStep("Home#1", "loginBtn", "Login#2"));
+        saved.crashes.put("Home#1|loginBtn|Button|1", 2);
+        saved.save(graph, Set.of("Home#1|loginBtn|Button|1"), new Fingerprint.Index());
+
+        Checkpoint loaded = new Checkpoint(dir);
+        assertThat(loaded.exists()).isTrue();
+        Map<String, Explorer.ScreenNode> loadedGraph = new HashMap<>();
+        Set<String> visited = new HashSet<>();
+        loaded.load(loadedGraph, new Ids(), visited, new Fingerprint.Index());
+
+        assertThat(loadedGraph).containsOnlyKeys("Home#1");
+        assertThat(visited).containsExactly("Home#1|loginBtn|Button|1");
+        assertThat(loaded.visitedScreens).containsExactly("Home#1");
+        assertThat(loaded.errors).containsExactly("APP CRASH #1\tdetected");
+        assertThat(loaded.openElements).containsExactly("Home#1|loginBtn|Button|1");
+        assertThat(loaded.currentPath)
+            .extracting(s -> s.fromScreen, s -> s.elementTapped, s -> s.toScreen)
+            .containsExactly(tuple("Home#1", "loginBtn", "Login#2"));
+        assertThat(loaded.crashes).containsExactly(entry("Home#1|loginBtn|Button|1", 2));
+    }
+
+    @Test
+    void existsOnlyWithGraphAndState() {
+        Checkpoint checkpoint = new Checkpoint(dir);
+        assertThat(checkpoint.exists()).isFalse();
+
+        new GraphStore(dir.resolve("graph.tsv")).save(new HashMap<>(), Set.of(), new Fingerprint.Index());
+        assertThat(checkpoint.exists()).isFalse();
+
+        checkpoint.save(new HashMap<>(), Set.of(), new Fingerprint.Index());
+        assertThat(checkpoint.exists()).isTrue();
+    }
+}
@@ -0,0 +1,190 @@
+package com.test.engine;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Streams `adb logcat` for one device on a background thread and turns app crashes, ANRs,
+// process deaths and launches of other apps into events. Callers drain the queue instead
+// of asking the device after every action. When adb is missing or cannot see the device
+// the watcher simply is not running() and callers fall back to polling.
+public class CrashWatcher {
+
+    public enum Type { CRASH, ANR, DIED, LEFT }
+
+    // threadtime: "10-17 12:00:00.123  1234  1250 E AndroidRuntime: FATAL EXCEPTION: main"
+    private static final Pattern LINE = Pattern.compile(
+        "^(\\S+\\s+\\S+)\\s+(\\d+)\\s+(\\d+)\\s+([VDIWEF])\\s+(.*?)\\s*: (.*)$");
+    private static final Pattern START = Pattern.compile("START u\\d+ \\{.*cmp=([^/ ]+)/");
+    private static final int MAX_TRACE = 40;
+
+    private final String adb;
+    private final String udid;
+    private final String appPackage;
+    private final ConcurrentLinkedQueue<Event> events = new ConcurrentLinkedQueue<>();
+    private volatile Process process;
+    private Thread reader;
+
+    // Event still collecting lines, and the pid / tag / log entry they come from
+    private Event open;
+    private String openPid;
+    private String openTag;
+    private String openEntry;
+    private volatile long lastCrashAt;
+
+    public CrashWatcher(String adb, String udid, String appPackage) {
+        this.adb = adb;
+        this.udid = udid;
+        this.appPackage = appPackage;
+    }
+
+    public synchronized void start() {
+        if (running()) return;
+        List<String> command = new ArrayList<>(List.of(adb));
+        if (udid != null && !udid.isEmpty()) command.addAll(List.of("-s", udid));
+        // -T 1: only what happens from now on
+        command.addAll(List.of("logcat", "-v", "threadtime", "-T", "1", "-b", "main,system,crash"));
+        try {
+            process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        } catch (IOException e) {
+            System.out.println("Crash watcher disabled, cannot run " + adb + ": " + e.getMessage());
+            process = null;
+            return;
+        }
+        Process p = process;
+        reader = new Thread(() -> read(p), "logcat-" + udid);
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    public synchronized void stop() {
+        if (process != null) process.destroy();
+        process = null;
+        events.clear();
+    }
+
+    public boolean running() {
+        Process p = process;
+        return p != null && p.isAlive();
+    }
+
+    public boolean hasEvents() {
+        return !events.isEmpty();
+    }
+
+    // Everything seen since the last call, oldest first
+    public List<Event> drain() {
+        List<Event> drained = new ArrayList<>();
+        Event e;
+        while ((e = events.poll()) != null) drained.add(e);
+        return drained;
+    }
+
+    public void clear() {
+        events.clear();
+    }
+
+    private void read(Process p) {
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(p.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                Matcher m = LINE.matcher(line);
+                // One log call printed over several lines repeats its timestamp and thread id
+                if (m.matches()) accept(m.group(1) + " " + m.group(3), m.group(2), m.group(5), m.group(6));
+            }
+        } catch (IOException ignored) {
+            // Stream closed by stop()
+        }
+    }
+
+    // `entry` identifies the log call a line belongs to (timestamp and thread id)
+    void accept(String entry, String pid, String tag, String message) {
+        if (open != null) {
+            // An ANR report is one entry from system_server, whose pid and tag every other
+            // ActivityManager line shares too, so it ends with its entry
+            boolean same = pid.equals(openPid) && tag.equals(openTag)
+                && (open.type != Type.ANR || entry.equals(openEntry));
+            if (same && open.trace.size() < MAX_TRACE) {
+                open.add(message);
+                return;
+            }
+            open = null;
+        }
+        switch (tag) {
+            case "AndroidRuntime" -> {
+                // "FATAL EXCEPTION: main" comes first, the process name on the next line
+                if (message.startsWith("Process: ") && belongs(message.substring(9))) {
+                    open(Type.CRASH, entry, pid, tag, message);
+                }
+            }
+            case "ActivityManager", "ActivityTaskManager" -> {
+                if (message.startsWith("ANR in ") && belongs(message.substring(7))) {
+                    open(Type.ANR, entry, pid, tag, message);
+                } else if (message.startsWith("Process ") && message.contains(" has died")
+                        && belongs(message.substring(8))) {
+                    // A crash already reported its own death
+                    if (System.currentTimeMillis() - lastCrashAt > 5000) events.add(new Event(Type.DIED, message));
+                } else {
+                    Matcher start = START.matcher(message);
+                    if (start.find() && !start.group(1).equals(appPackage)
+                            && !start.group(1).startsWith("io.appium.")) {
+                        events.add(new Event(Type.LEFT, message));
+                    }
+                }
+            }
+            default -> { }
+        }
+    }
+
+    // The event is queued at once so the explorer sees it immediately; the stack trace follows
+    private void open(Type type, String entry, String pid, String tag, String message) {
+        open = new Event(type, message);
+        openEntry = entry;
+        openPid = pid;
+        openTag = tag;
+        if (type == Type.CRASH) lastCrashAt = System.currentTimeMillis();
+        events.add(open);
+    }
+
+    private boolean belongs(String process) {
+        return process.startsWith(appPackage)
+            && (process.length() == appPackage.length() || ",: (".indexOf(process.charAt(appPackage.length())) >= 0);
+    }
+
+    public static final class Event {
+        public final Type type;
+        public final String message;
+        public final long at = System.currentTimeMillis();
+        private final List<String> trace = new ArrayList<>();
+
+        Event(Type type, String message) {
+            this.type = type;
+            this.message = message;
+        }
+
+        private synchronized void add(String line) {
+            trace.add(line);
+        }
+
+        public synchronized List<String> trace() {
+            return new ArrayList<>(trace);
+        }
+
+        public boolean isCrash() {
+            return type != Type.LEFT;
+        }
+
+        @Override
+        public synchronized String toString() {
+            StringBuilder sb = new StringBuilder(type + ": " + message);
+            for (String line : trace) sb.append('\n').append(line);
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.test.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CrashWatcherTest {
+
+    private static final String APP = "com.saucelabs.mydemoapp.android";
+
+    private final CrashWatcher watcher = new CrashWatcher("adb", null, APP);
+
+    @Test
+    void crashCollectsItsStackTrace() {
+        watcher.accept("12:00:00.100 4321", "4321", "AndroidRuntime", "FATAL EXCEPTION: main");
+        watcher.accept("12:00:00.100 4321", "4321", "AndroidRuntime", "Process: " + APP + ", PID: 4321");
+        watcher.accept("12:00:00.100 4321", "4321", "AndroidRuntime", "java.lang.NullPointerException");
+        watcher.accept("12:00:00.100 4321", "4321", "AndroidRuntime", "\tat " + APP + ".Login.onClick(Login.java:12)");
+        watcher.accept("12:00:00.300 600", "550", "ActivityManager", "Force finishing activity " + APP + "/.Login");
+
+        List<CrashWatcher.Event> events = watcher.drain();
+        assertThat(events).hasSize(1);
+        assertThat(events.get(0).type).isEqualTo(CrashWatcher.Type.CRASH);
+        assertThat(events.get(0).message).isEqualTo("Process: " + APP + ", PID: 4321");
+        assertThat(events.get(0).trace()).containsExactly(
+            "java.lang.NullPointerException", "\tat " + APP + ".Login.onClick(Login.java:12)");
+        assertThat(watcher.hasEvents()).isFalse();
+    }
+
+    @Test
+    void otherProcessesAreIgnored() {
+        watcher.accept("12:00:00.100 1", "1", "AndroidRuntime", "Process: " + APP + "x, PID: 1");
+        watcher.accept("12:00:00.100 2", "2", "ActivityManager", "ANR in com.other.app");
+        watcher.accept("12:00:00.100 3", "3", "ActivityManager", "Process com.other.app (pid 9) has died");
+
+        assertThat(watcher.drain()).isEmpty();
+    }
+
+    @Test
+    void anrEndsWithItsLogEntry() {
+        String anr = "12:00:05.000 610";
+        watcher.accept(anr, "550", "ActivityManager", "ANR in " + APP + " (" + APP + "/.MainActivity)");
+        watcher.accept(anr, "550", "ActivityManager", "PID: 4321");
+        watcher.accept(anr, "550", "ActivityManager", "Reason: Input dispatching timed out");
+        // Same system_server pid and tag, but a log call of its own
+        watcher.accept("12:00:06.000 610", "550", "ActivityManager",
+            "START u0 {act=android.intent.action.MAIN cmp=com.google.android.apps.nexuslauncher/.NexusLauncherActivity} from uid 1000");
+
+        List<CrashWatcher.Event> events = watcher.drain();
+        assertThat(events).extracting(e -> e.type)
+            .containsExactly(CrashWatcher.Type.ANR, CrashWatcher.Type.LEFT);
+        assertThat(events.get(0).trace()).containsExactly("PID: 4321", "Reason: Input dispatching timed out");
+    }
+
+    @Test
+    void traceIsCapped() {
+        watcher.accept("12:00:00.100 4321", "4321", "AndroidRuntime", "Process: " + APP + ", PID: 4321");
+        for (int i = 0; i < 100; i++) {
+            watcher.accept("12:00:00.100 4321", "4321", "AndroidRuntime", "\tat frame" + i);
+        }
+
+        assertThat(watcher.drain().get(0).trace()).hasSize(40);
+    }
+
+    @Test
+    void launchOfAnotherAppIsLeavingButOwnAndAppiumAreNot() {
+        watcher.accept("12:00:00.100 1", "550", "ActivityTaskManager", "START u0 {cmp=" + APP + "/.MainActivity} from uid 2000");
+        watcher.accept("12:00:00.200 1", "550", "ActivityTaskManager", "START u0 {cmp=io.appium.settings/.Settings} from uid 2000");
+        watcher.accept("12:00:00.300 1", "550", "ActivityTaskManager", "START u0 {cmp=com.android.settings/.Settings} from uid 1000");
+
+        List<CrashWatcher.Event> events = watcher.drain();
+        assertThat(events).extracting(e -> e.type).containsExactly(CrashWatcher.Type.LEFT);
+        assertThat(events.get(0).isCrash()).isFalse();
+    }
+
+    @Test
+    void deathIsReportedUnlessACrashJustDid() {
+        watcher.accept("12:00:00.100 1", "550", "ActivityManager", "Process " + APP + " (pid 4321) has died: fg TOP");
+        assertThat(watcher.drain()).extracting(e -> e.type).containsExactly(CrashWatcher.Type.DIED);
+
+        watcher.accept("12:00:01.100 4321", "4321", "AndroidRuntime", "Process: " + APP + ", PID: 4321");
+        watcher.accept("12:00:01.200 1", "550", "ActivityManager", "Process " + APP + " (pid 4321) has died: fg TOP");
+        assertThat(watcher.drain()).extracting(e -> e.type).containsExactly(CrashWatcher.Type.CRASH);
+    }
+}
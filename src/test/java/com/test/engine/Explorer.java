@@ -1,37 +1,96 @@
 package com.test.engine;
 
+import io.appium.java_client.AppiumBy;
 import org.openqa.selenium.By;
-import org.openqa.selenium.Dimension;
 import org.openqa.selenium.WebElement;
 
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class Explorer {
 
     private final Session app;
-    private final Set<String> visitedScreens = new HashSet<>();
-    private final Set<String> visitedElements = new HashSet<>();
-    private final Map<String, ScreenNode> screenGraph = new HashMap<>();
-    private final List<String> errors = new ArrayList<>();
-    private final List<String> actionLog = new ArrayList<>();
+    // Shared with parallel workers, hence the concurrent collections
+    private final Set<String> visitedScreens;
+    private final Set<String> visitedElements;
+    private final Map<String, ScreenNode> screenGraph;
+    // String table of this run's graph, see Ids
+    private final Ids ids;
+    private final Journal journal;
+    private final Fingerprint.Index screens;
+    // Screens loaded from a previous run; their elements are trusted instead of rediscovered
+    private final Set<String> knownScreens;
+    private final Frontier frontier;
+    private final Recovery recovery;
+    // Learns which kinds of element tend to lead somewhere new; orders and prunes the frontier
+    private final TransitionModel model;
+    private final StateOracle state;
+    private final String workerName;
+    private Frontier.Strategy strategy = Frontier.Strategy.valueOf(
+        Session.property("explorer.strategy", "hybrid").toUpperCase());
+    private int workers = Integer.parseInt(Session.property("explorer.workers", "1"));
+    private final GraphStore store = new GraphStore(Paths.get(Session.property("explorer.store", "target/exploration/graph.tsv")));
+    private boolean incremental = Boolean.parseBoolean(Session.property("explorer.incremental", "false"));
+    private Checkpoint checkpoint = new Checkpoint(Paths.get(Session.property("explorer.checkpoint", "target/exploration/checkpoint")));
+    private long checkpointInterval = Long.parseLong(Session.property("explorer.checkpointSeconds", "30")) * 1000;
+    private long lastCheckpoint;
+    private volatile String screenInProgress;
+    // Screen of the checkpoint's current path, reached before a resumed run takes work
+    private String resumeAt;
     
     private int maxDepth = 30;
-    private int currentDepth = 0;
     private boolean fillForms = true;
     private boolean tryScrolling = true;
     private String rootScreen = null;
     private String appPackage = "com.saucelabs.mydemoapp.android";
     private int crashCount = 0;
+    // Set when verifyAndRecoverAppState() saw a crash, even one it recovered from
+    private boolean crashed;
     private static final int MAX_CRASH_RECOVERY = 3;
+    private static final String[] CRASH_DIALOG_TEXTS = {"has stopped", "keeps stopping", "isn't responding", "Unfortunately"};
     
-    private long startTime;
-    private static final long MAX_EXPLORATION_TIME = 5 * 60 * 1000;
-    private int stuckCounter = 0;
-    private static final int MAX_STUCK_COUNT = 3;
-    private String lastScreenSignature = "";
+    private Budget budget = Budget.fromProperties();
+    // Screen this explorer's device is believed to be on, null when unknown
+    private String currentScreen;
 
     public Explorer() {
         this.app = Session.current();
+        this.visitedScreens = ConcurrentHashMap.newKeySet();
+        this.visitedElements = ConcurrentHashMap.newKeySet();
+        this.screenGraph = new ConcurrentHashMap<>();
+        this.ids = new Ids();
+        this.journal = Journal.fromProperties();
+        this.screens = new Fingerprint.Index();
+        this.knownScreens = ConcurrentHashMap.newKeySet();
+        this.model = TransitionModel.fromProperties();
+        this.frontier = new Frontier(strategy, model, here -> Navigator.distances(screenGraph, here));
+        this.recovery = new Recovery();
+        this.state = new StateOracle(app, appPackage);
+        this.workerName = null;
+    }
+
+    // A parallel worker: own session and device, everything it discovers goes into the parent's graph
+    private Explorer(Explorer parent, Session session, String name) {
+        this.app = session;
+        this.visitedScreens = parent.visitedScreens;
+        this.visitedElements = parent.visitedElements;
+        this.screenGraph = parent.screenGraph;
+        this.ids = parent.ids;
+        this.journal = parent.journal;
+        this.screens = parent.screens;
+        this.knownScreens = parent.knownScreens;
+        this.frontier = parent.frontier;
+        this.recovery = parent.recovery;
+        this.model = parent.model;
+        this.state = new StateOracle(session, appPackage);
+        this.workerName = name;
+        this.maxDepth = parent.maxDepth;
+        this.fillForms = parent.fillForms;
+        this.tryScrolling = parent.tryScrolling;
+        this.budget = parent.budget;
+        this.rootScreen = parent.rootScreen;
+        this.strategy = parent.strategy;
     }
 
     public Explorer maxDepth(int depth) {
@@ -49,476 +108,689 @@ public class Explorer {
         return this;
     }
 
+    // Order in which pending elements are tried, see Frontier.Strategy
+    public Explorer strategy(Frontier.Strategy strategy) {
+        this.strategy = strategy;
+        frontier.strategy(strategy);
+        return this;
+    }
+
+    public Explorer timeLimit(int minutes) {
+        this.budget = budget.withTime(minutes * 60_000L);
+        return this;
+    }
+
+    // Upper bound on driver commands across all workers, 0 for none
+    public Explorer commandLimit(int commands) {
+        this.budget = budget.withCommands(commands);
+        return this;
+    }
+
+    public Explorer checkpointEvery(int seconds) {
+        this.checkpointInterval = seconds * 1000L;
+        return this;
+    }
+
+    // Number of devices to explore with; each worker leases its own session from the pool
+    public Explorer parallel(int workers) {
+        this.workers = workers;
+        return this;
+    }
+
+    // Continue from the graph saved by the previous run instead of starting empty
+    public Explorer incremental(boolean incremental) {
+        this.incremental = incremental;
+        return this;
+    }
+
     public void explore() {
-        startTime = System.currentTimeMillis();
-        log("Starting exploration, max depth: " + maxDepth + ", timeout: " + (MAX_EXPLORATION_TIME/1000) + "s");
+        run();
+    }
+
+    // Continues an exploration that stopped (timeout, dead session) from its last checkpoint
+    public void resume(Checkpoint from) {
+        if (!from.exists()) {
+            throw new IllegalStateException("No checkpoint in " + from.dir());
+        }
+        from.load(screenGraph, ids, visitedElements, screens);
+        // Screens already scanned before the stop keep their elements in the frontier through
+        // offerPending(), they are not scanned and offered again when reached
+        visitedScreens.addAll(from.visitedScreens);
+        journal.restoreErrors(from.errors);
+        // Every stored screen is trusted, its untried elements go back into the frontier
+        knownScreens.addAll(screenGraph.keySet());
+        recovery.crashes().putAll(from.crashes);
+        // Elements that were mid-exploration never finished, tap them again. The usual reason a
+        // run stops mid-tap is a crash, so count one; a second crash marks the tap deterministic
+        for (String key : from.openElements) {
+            if (recovery.recordCrash(key) < Recovery.DETERMINISTIC) visitedElements.remove(key);
+        }
+        this.checkpoint = from;
+        if (!from.currentPath.isEmpty()) {
+            resumeAt = from.currentPath.get(from.currentPath.size() - 1).toScreen;
+        }
+        log("Resuming from " + from.dir() + ": " + screenGraph.size() + " screens, "
+            + visitedElements.size() + " tapped elements, stopped at " + formatPath(from.currentPath));
+        run();
+    }
+
+    private void run() {
+        budget.start();
+        lastCheckpoint = System.currentTimeMillis();
+        log("Starting exploration, max depth: " + maxDepth + ", strategy: " + strategy
+            + ", budget: " + budget);
+        model.load();
+        
+        if (incremental && store.exists()) {
+            store.load(screenGraph, ids, visitedElements, screens);
+            knownScreens.addAll(screenGraph.keySet());
+            log("Loaded " + knownScreens.size() + " known screens and " + visitedElements.size()
+                + " tapped elements from " + store.file());
+        }
         
-        pause(1500);
         waitForAppToLoad();
         rootScreen = getScreenSignature();
-        lastScreenSignature = rootScreen;
-        dfsExplore(new ArrayList<>());
+        currentScreen = rootScreen;
+        try {
+            exploreFrontier();
+        } finally {
+            // Each save on its own, so one failing neither loses the others nor leaves the journal open
+            try {
+                try {
+                    store.save(screenGraph, visitedElements, screens);
+                } catch (RuntimeException e) {
+                    log("  Could not save graph: " + e.getMessage());
+                }
+                try {
+                    model.save();
+                } catch (RuntimeException e) {
+                    log("  Could not save transition model: " + e.getMessage());
+                }
+                writeCheckpoint();
+            } finally {
+                // Let the writer catch up so the report is not interleaved with queued log lines
+                journal.close();
+            }
+        }
         printNavigationReport();
     }
-    
-    private boolean isTimedOut() {
-        return System.currentTimeMillis() - startTime > MAX_EXPLORATION_TIME;
-    }
-    
-    private boolean isStuck(String currentScreen) {
-        if (currentScreen.equals(lastScreenSignature)) {
-            stuckCounter++;
-            if (stuckCounter >= MAX_STUCK_COUNT) {
-                log("Stuck on same screen " + stuckCounter + " times, breaking out");
-                return true;
+
+    // Workers pull (screen, element) items from the shared frontier, best-first by strategy.
+    // This thread is worker 0 and keeps its session; the others lease theirs and hand them
+    // back when the frontier is drained.
+    private void exploreFrontier() {
+        ScreenNode root = screenGraph.computeIfAbsent(rootScreen, id -> new ScreenNode(id, ids));
+        root.markRoot();
+        visitedScreens.add(rootScreen);
+        scanScreen(root);
+        // Stored screens keep their untried elements, reached through the recorded paths
+        for (ScreenNode node : screenGraph.values()) {
+            int depth = node.depth();
+            if (node != root && depth >= 0 && depth < maxDepth) {
+                offerPending(node, depth);
             }
-        } else {
-            stuckCounter = 0;
-            lastScreenSignature = currentScreen;
         }
-        return false;
-    }
+        log("Frontier: " + frontier.size() + " items");
+        // Pick up where the checkpointed run was tapping, so cost-aware strategies finish that screen first
+        if (resumeAt != null && !resumeAt.equals(currentScreen)) {
+            if (reach(resumeAt)) {
+                log("Back on " + truncate(resumeAt, 30) + " where the previous run stopped");
+            } else {
+                warn("Could not get back to " + truncate(resumeAt, 30) + ", continuing from " + truncate(currentScreen, 30));
+            }
+            resumeAt = null;
+        }
 
-    private void dfsExplore(List<NavigationStep> pathToHere) {
-        if (isTimedOut()) {
-            log("Exploration timeout reached, stopping");
-            return;
+        List<Thread> threads = new ArrayList<>();
+        if (workers > 1) log("Parallel exploration with " + workers + " workers");
+        for (int i = 1; i < workers; i++) {
+            String name = "w" + i;
+            Thread thread = new Thread(() -> {
+                Session session = null;
+                try {
+                    // Leasing fails when the pool has no free device; reported like any other failure
+                    session = Session.current();
+                    session.open();
+                    new Explorer(this, session, name).work();
+                } catch (Exception e) {
+                    error(Journal.Type.ERROR, "Worker " + name + " failed: " + e.getMessage());
+                } finally {
+                    if (session != null) session.close();
+                }
+            }, "explorer-" + name);
+            thread.start();
+            threads.add(thread);
         }
-        
-        if (currentDepth >= maxDepth) {
-            log("Max depth " + maxDepth + " reached, backtracking");
-            return;
+        work();
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void work() {
+        while (true) {
+            String spent = budget.exhausted();
+            if (spent != null) {
+                log("Exploration budget spent (" + spent + "), stopping");
+                break;
+            }
+            Frontier.Item item;
+            try {
+                item = frontier.take(currentScreen, budget.deadline());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (item == null) break;
+            if (!budget.allows(item.screenId)) {
+                // Left untapped so a later run can still pick it up
+                log("  Skipping " + item + ", " + truncate(item.screenId, 30) + " has stopped yielding");
+                frontier.done(item);
+                continue;
+            }
+            if (model.skips(item.features())) {
+                log("  Skipping " + item + ", taps on elements like it have not found anything new");
+                frontier.done(item);
+                continue;
+            }
+            screenInProgress = item.screenId;
+            long started = System.currentTimeMillis();
+            long commands = app.metrics().commands();
+            boolean yielded = false;
+            try {
+                yielded = exploreItem(item);
+            } catch (Exception e) {
+                currentScreen = null;
+                error(Journal.Type.ERROR, "Failed on " + item + " at " + truncate(item.screenId, 30) + ": " + e.getMessage());
+            } finally {
+                long took = System.currentTimeMillis() - started;
+                budget.charge(item.screenId, took, app.metrics().commands() - commands, yielded);
+                event(Journal.Type.TAP, item.screenId, item + (yielded ? ": new" : ": nothing new"), took);
+                frontier.done(item);
+            }
+            // Only the coordinating explorer writes checkpoints, workers share its state
+            if (workerName == null) checkpointIfDue();
         }
+    }
 
+    // True when the tap found something new: a screen, or elements in a popup or menu
+    private boolean exploreItem(Frontier.Item item) {
         if (!verifyAndRecoverAppState()) {
-            log("Cannot continue - app in bad state");
-            return;
+            currentScreen = null;
+            return false;
+        }
+        if (!reach(item.screenId)) {
+            warn("Could not reach " + truncate(item.screenId, 30) + " to tap " + item);
+            return false;
         }
+        ScreenNode node = screenGraph.get(item.screenId);
+        visitedElements.add(item.key);
+        log("  Tapping: " + item + " on " + truncate(item.screenId, 30));
 
-        String currentScreen = getScreenSignature();
-        
-        if (isStuck(currentScreen)) {
-            goBack();
-            return;
+        if (item.trigger != null && !tapElement(item.trigger)) {
+            log("    Could not open menu via " + item.trigger.id);
+            return false;
         }
-        
-        String screenStateKey = currentScreen + "|depth" + currentDepth;
-        if (visitedScreens.contains(screenStateKey)) {
-            log("Screen already explored: " + truncate(currentScreen, 40));
-            return;
+        crashed = false;
+        if (!tapElement(item.element)) {
+            if (quickAppCheck()) {
+                log("    Could not tap element");
+                if (item.trigger != null) goBack();
+                currentScreen = null;
+                return false;
+            }
+            // tapElement() also gives up when the app is gone right after the click: this element
+            // crashed or left the app. currentScreen still names the screen it was tapped on, so
+            // recovery can relaunch straight into that screen's activity. The watcher's events
+            // tell a crash from a link into another app; without it, leaving counts as a crash
+            crashed = !watching();
+        }
+        if (!verifyAndRecoverAppState() || crashed) {
+            log("    App crashed after tapping " + item);
+            boolean deterministic = recovery.recordCrash(item.key) >= Recovery.DETERMINISTIC;
+            error(Journal.Type.CRASH, "Crash after tapping: " + item + " on " + truncate(item.screenId, 30)
+                + (deterministic ? " (deterministic)" : ""));
+            return false;
         }
 
-        currentDepth++;
-        visitedScreens.add(screenStateKey);
-        
-        log("\n[Depth " + currentDepth + "] " + truncate(currentScreen, 50));
+        String after = getScreenSignature();
+        currentScreen = after;
+        if (!after.equals(item.screenId)) {
+            node.addEdge(item.toString(), after);
+            boolean fresh = publishScreen(after, node, item.toString());
+            if (!hasBackEdge(after)) recordBackEdge(after, item.screenId);
+            model.record(item.features(), fresh);
+            return fresh;
+        } else if (item.trigger == null) {
+            // Same screen but new elements: a popup or menu, queue its items behind this trigger
+            List<ElementInfo> appeared = discoverAllElements();
+            boolean found = false;
+            synchronized (node) {
+                for (ElementInfo el : appeared) {
+                    if (node.hasElement(el)) continue;
+                    el.triggeredBy = item.element.id;
+                    node.addElement(el);
+                    found = true;
+                    debug("      + " + el.id + " (triggered by " + item.element.id + ")");
+                    if (el.isClickable && !shouldSkipElement(el)) {
+                        frontier.offer(new Frontier.Item(item.screenId, el, item.element, item.depth));
+                    }
+                }
+            }
+            // Close the popup; a tap that changed nothing leaves the device where it is
+            if (found) goBack();
+            model.record(item.features(), found);
+            return found;
+        }
+        // Menu item that did not navigate, close the menu
+        goBack();
+        model.record(item.features(), false);
+        return false;
+    }
 
-        // Create or update screen node
-        ScreenNode node = screenGraph.computeIfAbsent(currentScreen, k -> new ScreenNode(currentScreen));
-        if (node.pathFromRoot == null || pathToHere.size() < node.pathFromRoot.size()) {
-            node.pathFromRoot = new ArrayList<>(pathToHere);
+    // First worker to reach a screen scans it; later arrivals only shorten its path
+    private boolean publishScreen(String screenId, ScreenNode from, String via) {
+        ScreenNode fresh = new ScreenNode(screenId, ids);
+        fresh.offerPath(from, via);
+        ScreenNode existing = screenGraph.putIfAbsent(screenId, fresh);
+        if (existing == null) {
+            event(Journal.Type.SCREEN, screenId, "    → NEW SCREEN DISCOVERED! " + truncate(screenId, 40), -1);
+            visitedScreens.add(screenId);
+            scanScreen(fresh);
+            return true;
+        }
+        existing.offerPath(from, via);
+        // A stored screen reached for the first time this run still owes its untried elements
+        if (visitedScreens.add(screenId) && knownScreens.contains(screenId)) {
+            scanScreen(existing);
         }
+        return false;
+    }
 
-        // Check for crash dialogs
+    private void scanScreen(ScreenNode node) {
+        long started = System.currentTimeMillis();
+        int depth = node.depth();
+        log("[Depth " + depth + "] " + truncate(node.id, 50));
+        if (node.activity == null) node.activity = currentActivity();
         if (checkForCrash()) {
             log("APP CRASH DETECTED!");
-            errors.add("CRASH on screen: " + currentScreen + " via path: " + formatPath(pathToHere));
+            error(Journal.Type.CRASH, "CRASH on screen: " + node.id + " via path: " + formatPath(node.pathFromRoot()));
             dismissCrashDialog();
-            if (!verifyAndRecoverAppState()) {
-                currentDepth--;
-                return;
-            }
+            if (!verifyAndRecoverAppState()) return;
         }
 
-        List<ElementInfo> elements = discoverAllElements();
-        node.elements.addAll(elements);
-        log("  Found " + elements.size() + " elements");
-
-        if (tryScrolling) {
-            List<ElementInfo> moreElements = scrollAndDiscover();
-            for (ElementInfo el : moreElements) {
-                if (!containsElement(node.elements, el)) {
-                    node.elements.add(el);
-                }
+        // A matching fingerprint already proves a known screen is unchanged, skip rediscovery
+        if (knownScreens.contains(node.id)) {
+            log("  Known screen, reusing " + node.elements.size() + " stored elements");
+        } else {
+            Map<String, ElementInfo> found = new LinkedHashMap<>();
+            for (ElementInfo el : discoverAllElements()) found.putIfAbsent(el.key(), el);
+            if (tryScrolling) {
+                for (ElementInfo el : scrollAndDiscover()) found.putIfAbsent(el.key(), el);
             }
-            scrollToTop();
+            List<ElementInfo> elements = new ArrayList<>(found.values());
+            if (fillForms) {
+                fillAllTextFields(elements);
+            }
+            synchronized (node) {
+                for (ElementInfo el : elements) node.addElement(el);
+            }
+            event(Journal.Type.DISCOVER, node.id, "  Found " + elements.size() + " elements",
+                System.currentTimeMillis() - started);
         }
-
-        if (fillForms) {
-            fillAllTextFields(elements);
+        if (depth >= maxDepth) {
+            log("  Max depth " + maxDepth + " reached, not queueing its elements");
+            return;
         }
+        offerPending(node, depth);
+    }
 
-        List<ElementInfo> clickables = new ArrayList<>();
-        for (ElementInfo el : node.elements) {
-            if (el.isClickable && !shouldSkipElement(el)) {
-                clickables.add(el);
-            }
+    // Queues every clickable on the screen that has not been tapped yet
+    private void offerPending(ScreenNode node, int depth) {
+        List<ElementInfo> elements;
+        synchronized (node) {
+            elements = new ArrayList<>(node.elements);
         }
-        
-        log("  " + clickables.size() + " clickables");
-        
-        for (ElementInfo element : clickables) {
-            if (isTimedOut()) {
-                log("Timeout, stopping");
-                break;
-            }
-            
-            if (!isStillInApp()) {
-                if (!verifyAndRecoverAppState()) {
-                    continue;
+        int offered = 0;
+        for (ElementInfo el : elements) {
+            if (!el.isClickable || shouldSkipElement(el)) continue;
+            ElementInfo trigger = null;
+            if (el.triggeredBy != null) {
+                synchronized (node) {
+                    trigger = node.element(el.triggeredBy);
                 }
+                if (trigger == null) continue;
             }
-            
-            String elementKey = currentScreen + "|" + element.id;
-            
-            if (visitedElements.contains(elementKey)) {
-                continue;
-            }
-            visitedElements.add(elementKey);
-            
-            // Try to tap this element
-            log("  Tapping: " + element.id);
-            
-            // Verify app state before tapping
-            if (!verifyAndRecoverAppState()) {
-                log("    App crashed, stopping exploration of this branch");
-                break;
-            }
-            
-            String beforeTapScreen = getScreenSignature();
-            boolean tapped = tapElement(element);
-            
-            if (!tapped) {
-                log("    Could not tap element");
-                continue;
-            }
-            
-            pause(100);
-            
-            // Check if app crashed after tap
-            if (!verifyAndRecoverAppState()) {
-                log("    App crashed after tapping " + element.id);
-                errors.add("Crash after tapping: " + element.id + " on " + truncate(currentScreen, 30));
-                continue;
+            Frontier.Item item = new Frontier.Item(node.id, el, trigger, depth);
+            if (visitedElements.contains(item.key) || recovery.isDeterministic(item.key)) continue;
+            if (frontier.offer(item)) offered++;
+        }
+        if (offered > 0) log("  " + offered + " clickables queued");
+    }
+
+    // Follows the cheapest known route from wherever the device is, re-planning when a step
+    // lands somewhere unexpected; relaunching and replaying the path from root is the last resort
+    private boolean reach(String screenId) {
+        String here = getScreenSignature();
+        if (screenId.equals(here)) {
+            currentScreen = here;
+            return true;
+        }
+        long started = System.currentTimeMillis();
+        for (int attempt = 0; attempt < 3 && here != null && !here.equals(screenId); attempt++) {
+            List<NavigationStep> route = Navigator.route(screenGraph, here, screenId);
+            if (route == null) break;
+            debug("    Route: " + formatPath(route));
+            here = follow(route);
+        }
+        if (screenId.equals(here)) {
+            currentScreen = here;
+            event(Journal.Type.NAVIGATE, screenId, "    Reached " + truncate(screenId, 30),
+                System.currentTimeMillis() - started);
+            return true;
+        }
+        ScreenNode target = screenGraph.get(screenId);
+        List<NavigationStep> path = target != null ? target.pathFromRoot() : null;
+        if (path == null) return false;
+        log("    No working route to " + truncate(screenId, 30) + ", replaying from root");
+        currentScreen = null;
+        try {
+            app.driver().terminateApp(appPackage);
+            app.driver().activateApp(appPackage);
+            settle();
+        } catch (Exception e) {
+            return false;
+        }
+        for (NavigationStep step : path) {
+            if (!tapElement(elementFor(step))) {
+                if (!quickAppCheck()) crashedOn(step);
+                return false;
             }
-            
-            String afterTapScreen = getScreenSignature();
-            List<ElementInfo> afterTapElements = discoverAllElements();
-            
-            // Check what changed
-            boolean screenChanged = !afterTapScreen.equals(beforeTapScreen);
-            boolean newElementsAppeared = hasNewElements(node.elements, afterTapElements);
-            
-            if (screenChanged) {
-                log("    → NEW SCREEN DISCOVERED!");
-                
-                // Record the navigation edge
-                NavigationStep step = new NavigationStep(currentScreen, element.id, afterTapScreen);
-                node.outgoingEdges.add(step);
-                
-                // Build path to new screen
-                List<NavigationStep> newPath = new ArrayList<>(pathToHere);
-                newPath.add(step);
-                
-                // DFS: Explore the new screen deeply
-                dfsExplore(newPath);
-                
-                // Backtrack: Return to current screen
-                log("    ← Backtracking to: " + truncate(currentScreen, 40));
+        }
+        if (!getScreenSignature().equals(screenId)) return false;
+        currentScreen = screenId;
+        event(Journal.Type.NAVIGATE, screenId, "    Replayed " + path.size() + " steps to " + truncate(screenId, 30),
+            System.currentTimeMillis() - started);
+        return true;
+    }
+
+    // Screen reached after following the route until the first step that does not land as
+    // recorded, or null when the device left the app
+    private String follow(List<NavigationStep> route) {
+        String here = route.get(0).fromScreen;
+        for (NavigationStep step : route) {
+            if (step.isBack()) {
                 goBack();
-                pause(200);
-                
-                // Verify we're back
-                String backScreen = getScreenSignature();
-                if (!backScreen.equals(currentScreen)) {
-                    log("    Could not return, trying navigation path...");
-                    navigateToScreen(pathToHere);
-                }
-                
-            } else if (newElementsAppeared) {
-                log("    → NEW ELEMENTS APPEARED (popup/menu/dropdown)!");
-                
-                // Collect all new clickable elements (menu items)
-                List<ElementInfo> newClickables = new ArrayList<>();
-                for (ElementInfo newEl : afterTapElements) {
-                    if (!containsElement(node.elements, newEl)) {
-                        newEl.triggeredBy = element.id;
-                        newEl.pathToTrigger = new ArrayList<>(pathToHere);
-                        node.elements.add(newEl);
-                        
-                        log("      + " + newEl.id + " (triggered by " + element.id + ")");
-                        
-                        if (newEl.isClickable && !shouldSkipElement(newEl)) {
-                            newClickables.add(newEl);
-                        }
-                    }
+                if (!quickAppCheck()) {
+                    // Back leaves the app from here, stop routing through it
+                    forgetBackEdge(step.fromScreen);
+                    return null;
                 }
-                
-                // Close the menu first
-                goBack();
-                pause(150);
-                
-                // Now explore EACH menu item deeply (DFS)
-                log("    Exploring " + newClickables.size() + " menu items");
-                
-                for (ElementInfo menuItem : newClickables) {
-                    String menuItemKey = currentScreen + "|menu|" + menuItem.id;
-                    if (visitedElements.contains(menuItemKey)) {
-                        continue;
-                    }
-                    visitedElements.add(menuItemKey);
-                    
-                    if (!verifyAndRecoverAppState()) {
-                        continue;
-                    }
-                    
-                    log("    Menu item: " + menuItem.id);
-                    
-                    // Re-open the menu
-                    log("      Opening menu via: " + element.id);
-                    boolean menuOpened = tapElement(element);
-                    if (!menuOpened) {
-                        log("      Could not re-open menu");
-                        continue;
-                    }
-                    pause(200);
-                    
-                    if (!isStillInApp()) {
-                        verifyAndRecoverAppState();
-                        continue;
-                    }
-                    
-                    // Tap the menu item
-                    log("      Tapping: " + menuItem.id);
-                    boolean menuItemTapped = tapElement(menuItem);
-                    if (!menuItemTapped) {
-                        log("      Could not tap menu item");
-                        goBack();
-                        pause(150);
-                        continue;
-                    }
-                    pause(100);
-                    
-                    // Check if app crashed after tapping menu item
-                    if (!verifyAndRecoverAppState()) {
-                        log("      App crashed after tapping menu item: " + menuItem.id);
-                        errors.add("Crash after menu item: " + menuItem.id);
-                        continue;
-                    }
-                    
-                    // Check if we navigated to a new screen
-                    String menuItemScreen = getScreenSignature();
-                    
-                    if (!menuItemScreen.equals(currentScreen)) {
-                        log("      → NEW SCREEN from menu item!");
-                        
-                        // Record navigation edge
-                        NavigationStep menuStep = new NavigationStep(
-                            currentScreen,
-                            element.id + " → " + menuItem.id,
-                            menuItemScreen
-                        );
-                        node.outgoingEdges.add(menuStep);
-                        
-                        // Build path: current path + open menu + tap menu item
-                        List<NavigationStep> menuPath = new ArrayList<>(pathToHere);
-                        menuPath.add(new NavigationStep(currentScreen, element.id, currentScreen + "|menu"));
-                        menuPath.add(new NavigationStep(currentScreen + "|menu", menuItem.id, menuItemScreen));
-                        
-                        // DFS: Explore the new screen deeply
-                        dfsExplore(menuPath);
-                        
-                        // Backtrack to original screen
-                        log("      ← Backtracking from menu item screen");
-                        goBack();
-                        pause(200);
-                        
-                        if (!verifyAndRecoverAppState()) {
-                            continue;
-                        }
-                        
-                        String backCheck = getScreenSignature();
-                        if (!backCheck.equals(currentScreen)) {
-                            log("      Not back to original, navigating...");
-                            // Try multiple backs
-                            for (int i = 0; i < 5; i++) {
-                                goBack();
-                                pause(150);
-                                if (!isStillInApp()) {
-                                    verifyAndRecoverAppState();
-                                    break;
-                                }
-                                if (getScreenSignature().equals(currentScreen)) break;
-                            }
+            } else {
+                for (String id : step.elementTapped.split(" → ")) {
+                    if (!tapElement(elementFor(new NavigationStep(step.fromScreen, id, step.toScreen)))) {
+                        if (!quickAppCheck()) {
+                            crashedOn(step);
+                            return null;
                         }
-                    } else {
-                        // Menu item didn't navigate, just close
-                        goBack();
-                        pause(150);
+                        return getScreenSignature();
                     }
                 }
             }
+            String landed = getScreenSignature();
+            if (step.isBack() && !landed.equals(step.toScreen)) {
+                // Back depends on the back stack; keep what it did this time
+                recordBackEdge(step.fromScreen, landed);
+            }
+            if (!landed.equals(step.toScreen)) return landed;
+            here = landed;
         }
+        return here;
+    }
 
-        currentDepth--;
+    // A route step that crashes twice is dropped from the graph so routing stops using it
+    private void crashedOn(NavigationStep step) {
+        String key = step.fromScreen + "|" + step.elementTapped;
+        error(Journal.Type.CRASH, "Crash while navigating: " + step.elementTapped + " on " + truncate(step.fromScreen, 30));
+        if (recovery.recordCrash(key) < Recovery.DETERMINISTIC) return;
+        ScreenNode node = screenGraph.get(step.fromScreen);
+        if (node == null) return;
+        node.removeEdges(step.elementTapped);
     }
 
-    private void navigateToScreen(List<NavigationStep> path) {
-        log("  Navigating via path: " + formatPath(path));
-        
-        // First, go back to root
-        for (int i = 0; i < currentDepth + 2; i++) {
-            goBack();
-            pause(100);
+    // Back from a screen is assumed to return where it was entered from until seen otherwise
+    private void recordBackEdge(String from, String to) {
+        ScreenNode node = screenGraph.get(from);
+        if (node == null || from.equals(to) || from.equals(rootScreen)) return;
+        synchronized (node) {
+            node.removeEdges(NavigationStep.BACK);
+            node.addEdge(NavigationStep.BACK, to);
         }
-        pause(100);
-        
-        // Then follow the path
-        for (NavigationStep step : path) {
-            ElementInfo el = new ElementInfo();
-            el.id = step.elementTapped;
-            el.resourceId = step.elementTapped;
-            
-            tapElement(el);
-            pause(200);
+    }
+
+    private void forgetBackEdge(String from) {
+        ScreenNode node = screenGraph.get(from);
+        if (node == null) return;
+        node.removeEdges(NavigationStep.BACK);
+    }
+
+    private boolean hasBackEdge(String from) {
+        ScreenNode node = screenGraph.get(from);
+        return node != null && node.hasEdge(NavigationStep.BACK);
+    }
+
+    // The recorded element for a path step, so text/desc fallbacks work when it has no resource id
+    private ElementInfo elementFor(NavigationStep step) {
+        String from = step.fromScreen != null && step.fromScreen.endsWith("|menu")
+            ? step.fromScreen.substring(0, step.fromScreen.length() - "|menu".length())
+            : step.fromScreen;
+        ScreenNode node = from != null ? screenGraph.get(from) : null;
+        if (node != null) {
+            synchronized (node) {
+                ElementInfo el = node.element(step.elementTapped);
+                if (el != null) return el;
+            }
+        }
+        ElementInfo el = new ElementInfo();
+        el.id = step.elementTapped;
+        el.resourceId = step.elementTapped;
+        return el;
+    }
+
+    private void checkpointIfDue() {
+        if (checkpointInterval > 0 && System.currentTimeMillis() - lastCheckpoint >= checkpointInterval) {
+            writeCheckpoint();
+        }
+    }
+
+    private void writeCheckpoint() {
+        try {
+            checkpoint.visitedScreens.clear();
+            checkpoint.visitedScreens.addAll(visitedScreens);
+            checkpoint.errors.clear();
+            checkpoint.errors.addAll(journal.errors());
+            // Items still being tapped when the checkpoint is taken are retried on resume
+            checkpoint.openElements.clear();
+            checkpoint.openElements.addAll(frontier.inFlight());
+            checkpoint.currentPath.clear();
+            ScreenNode tapping = screenInProgress != null ? screenGraph.get(screenInProgress) : null;
+            List<NavigationStep> path = tapping != null ? tapping.pathFromRoot() : null;
+            if (path != null) checkpoint.currentPath.addAll(path);
+            checkpoint.crashes.clear();
+            checkpoint.crashes.putAll(recovery.crashes());
+            checkpoint.save(screenGraph, visitedElements, screens);
+            lastCheckpoint = System.currentTimeMillis();
+        } catch (Exception e) {
+            log("  Could not write checkpoint: " + e.getMessage());
         }
     }
 
     private List<ElementInfo> discoverAllElements() {
-        List<ElementInfo> elements = new ArrayList<>();
         
         // Quick app check before discovery
         if (!quickAppCheck()) {
             log("    Not in app during element discovery");
-            return elements;
+            return new ArrayList<>();
         }
         
-        // Find all clickable elements
+        // One page source fetch for the whole screen, everything else is in memory
+        Snapshot snapshot;
         try {
-            List<WebElement> clickables = app.driver().findElements(By.xpath("//*[@clickable='true']"));
-            for (WebElement el : clickables) {
-                if (isVisible(el)) {
-                    ElementInfo info = createElementInfo(el, true);
-                    if (!containsElement(elements, info)) {
-                        elements.add(info);
-                    }
-                }
-            }
+            snapshot = state.snapshot();
         } catch (Exception e) {
-            log("    Error finding clickables: " + e.getMessage());
+            log("    Error reading hierarchy: " + e.getMessage());
             // Check if error is because we left the app
             if (!quickAppCheck()) {
                 log("    Left app during element discovery");
-                return elements;
+            }
+            return new ArrayList<>();
+        }
+        return elementsOf(snapshot, Collections.emptySet());
+    }
+
+    // Elements of an already fetched hierarchy. Nodes whose identity() is in `skip` are ignored,
+    // which lets scrolling extract only what a swipe revealed
+    private List<ElementInfo> elementsOf(Snapshot snapshot, Set<String> skip) {
+        // Keyed by ElementInfo.key(), so repeated nodes are dropped without rescanning the list
+        Map<String, ElementInfo> elements = new LinkedHashMap<>();
+
+        // Find all clickable elements
+        for (Snapshot.Node node : snapshot.clickables()) {
+            if (node.isVisible() && !skip.contains(identity(node))) {
+                ElementInfo info = createElementInfo(node, true);
+                elements.putIfAbsent(info.key(), info);
             }
         }
         
         // Find text fields
-        try {
-            List<WebElement> inputs = app.driver().findElements(By.className("android.widget.EditText"));
-            for (WebElement el : inputs) {
-                if (isVisible(el)) {
-                    ElementInfo info = createElementInfo(el, false);
-                    info.isTextField = true;
-                    if (!containsElement(elements, info)) {
-                        elements.add(info);
-                    }
-                }
+        for (Snapshot.Node node : snapshot.ofClass("android.widget.EditText")) {
+            if (node.isVisible() && !skip.contains(identity(node))) {
+                ElementInfo info = createElementInfo(node, false);
+                info.isTextField = true;
+                elements.putIfAbsent(info.key(), info);
             }
-        } catch (Exception ignored) {}
+        }
         
         // Find text views (for verification)
-        try {
-            List<WebElement> texts = app.driver().findElements(By.className("android.widget.TextView"));
-            for (WebElement el : texts) {
-                if (isVisible(el)) {
-                    String text = el.getText();
-                    if (text != null && !text.isEmpty() && text.length() < 50) {
-                        ElementInfo info = createElementInfo(el, false);
-                        info.isTextView = true;
-                        if (!containsElement(elements, info)) {
-                            elements.add(info);
-                        }
-                    }
+        for (Snapshot.Node node : snapshot.ofClass("android.widget.TextView")) {
+            if (node.isVisible() && !skip.contains(identity(node))) {
+                String text = node.text;
+                if (text != null && !text.isEmpty() && text.length() < 50) {
+                    ElementInfo info = createElementInfo(node, false);
+                    info.isTextView = true;
+                    elements.putIfAbsent(info.key(), info);
                 }
             }
-        } catch (Exception ignored) {}
+        }
         
-        return elements;
+        return new ArrayList<>(elements.values());
     }
 
-    private ElementInfo createElementInfo(WebElement el, boolean clickable) {
+    private ElementInfo createElementInfo(Snapshot.Node node, boolean clickable) {
         ElementInfo info = new ElementInfo();
-        try {
-            info.resourceId = el.getAttribute("resource-id");
-            info.text = el.getText();
-            info.contentDesc = el.getAttribute("content-desc");
-            info.className = el.getAttribute("class");
-            info.isClickable = clickable || "true".equals(el.getAttribute("clickable"));
-            
-            // Build ID for display
-            if (info.resourceId != null && !info.resourceId.isEmpty()) {
-                info.id = info.resourceId.substring(info.resourceId.lastIndexOf("/") + 1);
-            } else if (info.text != null && !info.text.isEmpty()) {
-                info.id = "text:" + info.text.substring(0, Math.min(20, info.text.length()));
-            } else if (info.contentDesc != null && !info.contentDesc.isEmpty()) {
-                info.id = "desc:" + info.contentDesc;
-            } else {
-                info.id = "class:" + (info.className != null ? info.className.substring(info.className.lastIndexOf(".") + 1) : "unknown");
-            }
-        } catch (Exception e) {
-            info.id = "error:" + System.currentTimeMillis();
+        info.resourceId = node.resourceId;
+        info.text = node.text;
+        info.contentDesc = node.contentDesc;
+        info.className = node.className;
+        info.isClickable = clickable || node.clickable;
+        
+        // Build ID for display
+        if (info.resourceId != null && !info.resourceId.isEmpty()) {
+            info.id = info.resourceId.substring(info.resourceId.lastIndexOf("/") + 1);
+        } else if (info.text != null && !info.text.isEmpty()) {
+            info.id = "text:" + info.text.substring(0, Math.min(20, info.text.length()));
+        } else if (info.contentDesc != null && !info.contentDesc.isEmpty()) {
+            info.id = "desc:" + info.contentDesc;
+        } else {
+            info.id = "class:" + (info.className != null ? info.className.substring(info.className.lastIndexOf(".") + 1) : "unknown");
         }
+        info.key = ElementInfo.keyOf(info, node.centerX());
         return info;
     }
 
+    // Swipes down through the screen's list, working on the settled snapshot after each swipe.
+    // A hierarchy that did not move means the end of the list; only nodes that were not on the
+    // previous snapshot become elements. Scrolls back with a single fling when done.
     private List<ElementInfo> scrollAndDiscover() {
-        List<ElementInfo> allElements = new ArrayList<>();
+        Map<String, ElementInfo> allElements = new LinkedHashMap<>();
+        Snapshot before;
+        try {
+            before = state.snapshot();
+        } catch (Exception e) {
+            return new ArrayList<>();
+        }
+        if (!hasScrollable(before)) return new ArrayList<>();
+
+        int swipes = 0;
         int noNewCount = 0;
-        
         for (int i = 0; i < 5; i++) {
-            // Check app state before scrolling
-            if (!quickAppCheck()) {
+            scrollDown();
+            swipes++;
+            Snapshot after = settle();
+            if (after == null) break;
+            if (!inApp(after)) {
                 log("    Left app during scroll discovery");
                 break;
             }
-            
-            scrollDown();
-            pause(150);
-            
-            // Check app state after scrolling
-            if (!quickAppCheck()) {
-                log("    Left app after scroll");
+            if (after.contentHash() == before.contentHash()) {
+                debug("    Scroll " + (i+1) + ": end of list");
                 break;
             }
-            
-            List<ElementInfo> found = discoverAllElements();
+
+            Set<String> seen = new HashSet<>();
+            for (Snapshot.Node node : before.nodes()) seen.add(identity(node));
             int newCount = 0;
-            
-            for (ElementInfo el : found) {
-                if (!containsElement(allElements, el)) {
-                    allElements.add(el);
+            for (ElementInfo el : elementsOf(after, seen)) {
+                if (allElements.putIfAbsent(el.key(), el) == null) {
                     newCount++;
                 }
             }
-            
+            before = after;
+
             if (newCount > 0) {
-                log("    Scroll " + (i+1) + ": Found " + newCount + " new elements");
+                debug("    Scroll " + (i+1) + ": Found " + newCount + " new elements");
                 noNewCount = 0;
             } else {
                 noNewCount++;
                 if (noNewCount >= 2) break;
             }
         }
-        
-        return allElements;
+        scrollToTop(swipes);
+        return new ArrayList<>(allElements.values());
     }
 
-    private void scrollToTop() {
-        for (int i = 0; i < 5; i++) {
-            scrollUp();
-                    pause(100);
+    // One UiScrollable fling back to the start instead of a swipe per page. UiAutomator2 runs
+    // the fling while resolving the selector, a failed lookup afterwards is harmless
+    private void scrollToTop(int swipes) {
+        if (swipes == 0) return;
+        try {
+            app.driver().findElement(AppiumBy.androidUIAutomator(
+                "new UiScrollable(new UiSelector().scrollable(true)).flingToBeginning(" + (swipes + 1) + ")"));
+        } catch (Exception ignored) {}
+        settle();
+    }
+
+    private boolean hasScrollable(Snapshot snapshot) {
+        for (Snapshot.Node node : snapshot.nodes()) {
+            if (node.scrollable) return true;
         }
+        return false;
+    }
+
+    // In-app check from a snapshot already in hand, no getCurrentPackage() round-trip
+    private boolean inApp(Snapshot snapshot) {
+        List<Snapshot.Node> nodes = snapshot.nodes();
+        return !nodes.isEmpty() && appPackage.equals(nodes.get(0).packageName);
+    }
+
+    // What a node shows, independent of where it is drawn
+    private String identity(Snapshot.Node node) {
+        return node.className + "|" + node.resourceId + "|" + node.text + "|" + node.contentDesc;
     }
 
     private boolean tapElement(ElementInfo el) {
@@ -530,33 +802,30 @@ public class Explorer {
         
         try {
             WebElement element = null;
+            // The cached hierarchy says which lookup can succeed (and that it is visible),
+            // so only that one goes to the device
+            Snapshot current = state.snapshot();
             
             // Try by resource ID
-            if (el.resourceId != null && !el.resourceId.isEmpty()) {
-                try {
-                    element = app.driver().findElement(By.id(el.resourceId));
-                } catch (Exception ignored) {}
+            if (el.resourceId != null && !el.resourceId.isEmpty() && current.has("id:" + el.resourceId)) {
+                element = app.driver().findElement(By.id(el.resourceId));
             }
             
             // Try by text
-            if (element == null && el.text != null && !el.text.isEmpty()) {
-                try {
-                    element = app.driver().findElement(By.xpath("//*[@text='" + el.text + "']"));
-                } catch (Exception ignored) {}
+            else if (el.text != null && !el.text.isEmpty() && current.has("text:" + el.text)) {
+                element = app.driver().findElement(Locators.compile("text:" + el.text));
             }
             
             // Try by content-desc
-            if (element == null && el.contentDesc != null && !el.contentDesc.isEmpty()) {
-                try {
-                    element = app.driver().findElement(By.xpath("//*[@content-desc='" + el.contentDesc + "']"));
-                } catch (Exception ignored) {}
+            else if (el.contentDesc != null && !el.contentDesc.isEmpty() && current.has("desc:" + el.contentDesc)) {
+                element = app.driver().findElement(Locators.compile("desc:" + el.contentDesc));
             }
             
-            if (element != null && element.isDisplayed()) {
+            if (element != null) {
                 element.click();
                 
                 // Quick check after tap
-                pause(150);
+                settle();
                 if (!quickAppCheck()) {
                     log("      Left app after tapping " + el.id);
                     return false;
@@ -564,7 +833,8 @@ public class Explorer {
                 return true;
             }
         } catch (Exception e) {
-            errors.add("Tap failed: " + el.id + " - " + e.getMessage());
+            state.invalidate();
+            warn("Tap failed: " + el.id + " - " + e.getMessage());
             // Check if we're still in app after error
             if (!quickAppCheck()) {
                 log("      Left app after tap error");
@@ -583,81 +853,37 @@ public class Explorer {
                     }
                     if (field != null && field.isDisplayed()) {
                         String value = generateTestValue(el.id);
-                        log("    Filling " + el.id + " with: " + value);
+                        debug("    Filling " + el.id + " with: " + value);
                         field.clear();
                         field.sendKeys(value);
-                        pause(100);
                     }
                 } catch (Exception e) {
-                    errors.add("Fill failed: " + el.id);
+                    warn("Fill failed: " + el.id);
                 }
             }
         }
         hideKeyboard();
+        settle();
     }
 
     private void waitForAppToLoad() {
-        for (int i = 0; i < 10; i++) {
-            try {
-                List<WebElement> elements = app.driver().findElements(By.xpath("//*[@clickable='true']"));
-                if (!elements.isEmpty()) {
-                    log("App loaded - found " + elements.size() + " clickable elements");
-                    return;
-                }
-            } catch (Exception ignored) {}
-            pause(100);
-            log("  Waiting for app... (" + (i+1) + "/10)");
+        Snapshot loaded = app.sync().until(snap -> !snap.clickables().isEmpty());
+        if (loaded != null) {
+            log("App loaded - found " + loaded.clickables().size() + " clickable elements");
+        } else {
+            log("  App did not show clickable elements in time, continuing");
         }
     }
 
+    // Structural fingerprint of the current hierarchy; free when nothing happened since the last read
     private String getScreenSignature() {
         try {
-            String activity = app.driver().currentActivity();
-            if (activity == null) activity = "unknown";
-            
-            List<WebElement> texts = app.driver().findElements(By.className("android.widget.TextView"));
-            StringBuilder sig = new StringBuilder(activity);
-            
-            int count = 0;
-            for (WebElement t : texts) {
-                try {
-                    String text = t.getText();
-                    if (text != null && !text.isEmpty() && text.length() < 30) {
-                        sig.append("|").append(text);
-                        if (++count >= 2) break;
-                    }
-                } catch (Exception ignored) {}
-            }
-            return sig.toString();
+            return state.screenId(snapshot -> screens.identify(Fingerprint.of(snapshot)));
         } catch (Exception e) {
             return "screen_" + System.currentTimeMillis();
         }
     }
 
-    private boolean hasNewElements(List<ElementInfo> before, List<ElementInfo> after) {
-        for (ElementInfo el : after) {
-            if (!containsElement(before, el)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    private boolean containsElement(List<ElementInfo> list, ElementInfo el) {
-        for (ElementInfo e : list) {
-            if (e.id != null && e.id.equals(el.id)) return true;
-        }
-        return false;
-    }
-
-    private boolean isVisible(WebElement el) {
-        try {
-            return el.isDisplayed();
-        } catch (Exception e) {
-            return false;
-        }
-    }
-
     private boolean shouldSkipElement(ElementInfo el) {
         if (el.id == null) return true;
         String id = el.id.toLowerCase();
@@ -688,49 +914,7 @@ public class Explorer {
 
     private void scrollDown() {
         try {
-            Dimension size = app.driver().manage().window().getSize();
-            int startX = size.width / 2;
-            int startY = (int) (size.height * 0.7);
-            int endY = (int) (size.height * 0.3);
-            
-            org.openqa.selenium.interactions.PointerInput finger = 
-                new org.openqa.selenium.interactions.PointerInput(
-                    org.openqa.selenium.interactions.PointerInput.Kind.TOUCH, "finger");
-            org.openqa.selenium.interactions.Sequence scroll = 
-                new org.openqa.selenium.interactions.Sequence(finger, 1);
-            
-            scroll.addAction(finger.createPointerMove(java.time.Duration.ZERO, 
-                org.openqa.selenium.interactions.PointerInput.Origin.viewport(), startX, startY));
-            scroll.addAction(finger.createPointerDown(org.openqa.selenium.interactions.PointerInput.MouseButton.LEFT.asArg()));
-            scroll.addAction(finger.createPointerMove(java.time.Duration.ofMillis(300), 
-                org.openqa.selenium.interactions.PointerInput.Origin.viewport(), startX, endY));
-            scroll.addAction(finger.createPointerUp(org.openqa.selenium.interactions.PointerInput.MouseButton.LEFT.asArg()));
-            
-            app.driver().perform(Arrays.asList(scroll));
-        } catch (Exception ignored) {}
-    }
-
-    private void scrollUp() {
-        try {
-            Dimension size = app.driver().manage().window().getSize();
-            int startX = size.width / 2;
-            int startY = (int) (size.height * 0.3);
-            int endY = (int) (size.height * 0.7);
-            
-            org.openqa.selenium.interactions.PointerInput finger = 
-                new org.openqa.selenium.interactions.PointerInput(
-                    org.openqa.selenium.interactions.PointerInput.Kind.TOUCH, "finger");
-            org.openqa.selenium.interactions.Sequence scroll = 
-                new org.openqa.selenium.interactions.Sequence(finger, 1);
-            
-            scroll.addAction(finger.createPointerMove(java.time.Duration.ZERO, 
-                org.openqa.selenium.interactions.PointerInput.Origin.viewport(), startX, startY));
-            scroll.addAction(finger.createPointerDown(org.openqa.selenium.interactions.PointerInput.MouseButton.LEFT.asArg()));
-            scroll.addAction(finger.createPointerMove(java.time.Duration.ofMillis(300), 
-                org.openqa.selenium.interactions.PointerInput.Origin.viewport(), startX, endY));
-            scroll.addAction(finger.createPointerUp(org.openqa.selenium.interactions.PointerInput.MouseButton.LEFT.asArg()));
-            
-            app.driver().perform(Arrays.asList(scroll));
+            app.gestures().scrollDown().perform();
         } catch (Exception ignored) {}
     }
 
@@ -740,26 +924,33 @@ public class Explorer {
 
     private void goBack() {
         try {
-            app.driver().navigate().back();
-            pause(100);
+            app.back();
+            settle();
             // Check if back caused us to leave the app
             if (!quickAppCheck()) {
                 log("    Back button caused app exit");
             }
         } catch (Exception e) {
+            state.invalidate();
             log("    Error going back: " + e.getMessage());
         }
     }
 
+    // With the logcat watcher running, no event means no crash dialog either
     private boolean checkForCrash() {
+        if (watching() && !app.crashes().hasEvents()) return false;
+        return crashDialogShown();
+    }
+
+    private boolean crashDialogShown() {
         try {
             // Check for crash/ANR dialogs - be specific
-            List<WebElement> crashDialogs = app.driver().findElements(
-                By.xpath("//*[contains(@text, 'has stopped') or contains(@text, 'keeps stopping') or " +
-                         "contains(@text, 'isn\\'t responding') or contains(@text, 'Unfortunately')]"));
-            if (!crashDialogs.isEmpty()) {
-                log("CRASH DIALOG DETECTED");
-                return true;
+            Snapshot current = state.snapshot();
+            for (String text : CRASH_DIALOG_TEXTS) {
+                if (current.containsText(text)) {
+                    log("CRASH DIALOG DETECTED");
+                    return true;
+                }
             }
             return false;
         } catch (Exception e) {
@@ -771,7 +962,7 @@ public class Explorer {
     
     private boolean isStillInApp() {
         try {
-            String currentPackage = app.driver().getCurrentPackage();
+            String currentPackage = state.foregroundPackage();
             
             if (currentPackage == null) {
                 log("Cannot get current package - session may be dead");
@@ -797,13 +988,26 @@ public class Explorer {
         }
     }
     
+    // Free from the state settle() cached, or while the logcat watcher is running and quiet;
+    // a device round-trip otherwise. A quiet exit (back to the launcher) logs no watcher event,
+    // so a cached state is always checked
     private boolean quickAppCheck() {
+        if (!state.isCached() && watching() && !app.crashes().hasEvents()) return true;
+        return deviceAppCheck();
+    }
+
+    private boolean watching() {
+        return app.crashes().running();
+    }
+
+    private boolean deviceAppCheck() {
         try {
-            String pkg = app.driver().getCurrentPackage();
+            String pkg = state.foregroundPackage();
             if (pkg == null) {
                 // Null package could be timing issue, try again
                 pause(150);
-                pkg = app.driver().getCurrentPackage();
+                state.invalidate();
+                pkg = state.foregroundPackage();
             }
             return pkg != null && (pkg.contains("saucelabs") || pkg.contains("mydemoapp"));
         } catch (Exception e) {
@@ -811,7 +1015,8 @@ public class Explorer {
             // It could be UiAutomator2 issue
             try {
                 // Try to get any response from driver
-                app.driver().getPageSource();
+                state.invalidate();
+                state.snapshot();
                 return true; // If we got page source, we're probably still in app
             } catch (Exception e2) {
                 return false;
@@ -820,14 +1025,34 @@ public class Explorer {
     }
     
     private boolean verifyAndRecoverAppState() {
-        // Quick check first - if we're in app, we're good
-        if (quickAppCheck()) {
+        List<CrashWatcher.Event> events = new ArrayList<>();
+        if (watching()) {
+            events = app.crashes().drain();
+            if (events.isEmpty() && quickAppCheck()) return true;
+            for (CrashWatcher.Event event : events) {
+                log("  " + event.type + ": " + event.message);
+                if (event.isCrash()) crashed = true;
+            }
+        }
+        try {
+            // Without the watcher an exit is assumed to be a crash; with it, a quiet exit is not one
+            return checkAndRecover(!watching() || crashed);
+        } finally {
+            // Recorded after recovery, by then the stack traces have been read too
+            for (CrashWatcher.Event event : events) {
+                if (event.isCrash()) error(Journal.Type.CRASH, event.toString());
+            }
+        }
+    }
+
+    private boolean checkAndRecover(boolean exitIsCrash) {
+        if (deviceAppCheck()) {
             // Check for crash dialog only if we're in app
-            if (checkForCrash()) {
+            if (crashDialogShown()) {
+                crashed = true;
                 dismissCrashDialog();
-                pause(100);
                 crashCount++;
-                errors.add("APP CRASH #" + crashCount + " detected and dismissed");
+                error(Journal.Type.CRASH, "APP CRASH #" + crashCount + " detected and dismissed");
                 
                 if (crashCount >= MAX_CRASH_RECOVERY) {
                     log("Too many crashes (" + crashCount + "), stopping exploration");
@@ -839,7 +1064,32 @@ public class Explorer {
         
         // Not in app - try to recover
         log("Not in app, attempting recovery...");
-        return restartApp();
+        if (exitIsCrash) crashed = true;
+        return relaunchLastScreen() || restartApp();
+    }
+
+    // One launch straight into the activity of the last screen we were on. Any screen of the app
+    // will do afterwards, reach() routes on from wherever it lands
+    private boolean relaunchLastScreen() {
+        ScreenNode last = currentScreen != null ? screenGraph.get(currentScreen) : null;
+        if (last == null || last.activity == null) return false;
+        if (!recovery.launch(app, appPackage, last.activity)) return false;
+        settle();
+        if (!isStillInApp()) return false;
+        currentScreen = getScreenSignature();
+        log(currentScreen.equals(last.id)
+            ? "Relaunched into " + last.activity + ", back on " + truncate(last.id, 30)
+            : "Relaunched into " + last.activity + ", now on " + truncate(currentScreen, 30));
+        crashCount = 0;
+        return true;
+    }
+
+    private String currentActivity() {
+        try {
+            return state.activity();
+        } catch (Exception e) {
+            return null;
+        }
     }
     
     private boolean restartApp() {
@@ -848,11 +1098,12 @@ public class Explorer {
             
             // Try to launch the app
             app.driver().activateApp(appPackage);
-            pause(150);
+            settle();
             
             // Verify we're back in app
             if (isStillInApp()) {
                 log("App restarted successfully");
+                currentScreen = null;
                 crashCount = 0;
                 return true;
             }
@@ -862,23 +1113,24 @@ public class Explorer {
             try {
                 app.driver().terminateApp(appPackage);
             } catch (Exception ignored) {}
-            pause(100);
+            settle();
             
             app.driver().activateApp(appPackage);
-            pause(100);
+            settle();
             
             if (isStillInApp()) {
                 log("App force-restarted successfully");
+                currentScreen = null;
                 return true;
             }
             
             log("Could not restart app");
-            errors.add("FATAL: Could not restart app after crash");
+            error(Journal.Type.ERROR, "FATAL: Could not restart app after crash");
             return false;
             
         } catch (Exception e) {
             log("Error restarting app: " + e.getMessage());
-            errors.add("FATAL: Exception while restarting app: " + e.getMessage());
+            error(Journal.Type.ERROR, "FATAL: Exception while restarting app: " + e.getMessage());
             return false;
         }
     }
@@ -889,11 +1141,11 @@ public class Explorer {
             String[] dismissTexts = {"OK", "Close", "Close app", "Wait", "CLOSE", "Dismiss"};
             for (String text : dismissTexts) {
                 try {
-                    List<WebElement> buttons = app.driver().findElements(By.xpath("//*[@text='" + text + "']"));
+                    List<WebElement> buttons = app.driver().findElements(Locators.compile("text:" + text));
             if (!buttons.isEmpty()) {
                 buttons.get(0).click();
                         log("  Dismissed crash dialog via: " + text);
-                pause(100);
+                settle();
                         return;
             }
         } catch (Exception ignored) {}
@@ -903,6 +1155,7 @@ public class Explorer {
             List<WebElement> anyButtons = app.driver().findElements(By.className("android.widget.Button"));
             if (!anyButtons.isEmpty()) {
                 anyButtons.get(0).click();
+                state.invalidate();
                 log("  Dismissed crash dialog via button");
             }
         } catch (Exception e) {
@@ -910,13 +1163,36 @@ public class Explorer {
         }
     }
 
+    // Waits for the UI to go idle (bounded) instead of sleeping a fixed time
+    // Also refreshes the state oracle with the snapshot the UI settled on
+    private Snapshot settle() {
+        Snapshot settled = app.settle();
+        state.observe(settled);
+        return settled;
+    }
+
     private void pause(int ms) {
         try { Thread.sleep(ms); } catch (InterruptedException ignored) {}
     }
 
     private void log(String msg) {
-        actionLog.add(msg);
-        System.out.println(msg);
+        journal.record(Journal.Level.INFO, Journal.Type.INFO, workerName, currentScreen, msg, -1);
+    }
+
+    private void debug(String msg) {
+        journal.record(Journal.Level.DEBUG, Journal.Type.INFO, workerName, currentScreen, msg, -1);
+    }
+
+    private void event(Journal.Type type, String screen, String msg, long durationMs) {
+        journal.record(Journal.Level.INFO, type, workerName, screen, msg, durationMs);
+    }
+
+    private void warn(String msg) {
+        journal.record(Journal.Level.WARN, Journal.Type.ERROR, workerName, currentScreen, msg, -1);
+    }
+
+    private void error(Journal.Type type, String msg) {
+        journal.record(Journal.Level.ERROR, type, workerName, currentScreen, msg, -1);
     }
 
     private String truncate(String s, int max) {
@@ -939,14 +1215,17 @@ public class Explorer {
         System.out.println("Screens Discovered: " + screenGraph.size());
         System.out.println("Total Elements: " + getTotalElements());
         System.out.println("Elements Interacted: " + visitedElements.size());
-        System.out.println("Errors: " + errors.size());
+        System.out.println("Errors: " + journal.errorCount());
+        System.out.println(budget.summary());
+        System.out.println(model.summary());
+        System.out.println("State queries: " + state.hits() + " answered from cache, " + state.reads() + " device reads");
 
         System.out.println("\nNAVIGATION MAP:\n");
         
         for (Map.Entry<String, ScreenNode> entry : screenGraph.entrySet()) {
             ScreenNode node = entry.getValue();
             System.out.println("Screen: " + truncate(entry.getKey(), 64));
-            System.out.println("  Path: " + formatPath(node.pathFromRoot));
+            System.out.println("  Path: " + formatPath(node.pathFromRoot()));
             System.out.println("  Elements (" + node.elements.size() + "):");
             
             Map<String, List<ElementInfo>> byTrigger = new LinkedHashMap<>();
@@ -967,21 +1246,31 @@ public class Explorer {
                 }
             }
             
-            if (!node.outgoingEdges.isEmpty()) {
+            List<NavigationStep> edges = node.outgoingEdges();
+            if (!edges.isEmpty()) {
                 System.out.println("  Leads to:");
-                for (NavigationStep edge : node.outgoingEdges) {
-                    System.out.println("    Tap [" + edge.elementTapped + "] -> " + truncate(edge.toScreen, 40));
+                for (NavigationStep edge : edges) {
+                    String action = edge.isBack() ? "Back" : "Tap [" + edge.elementTapped + "]";
+                    System.out.println("    " + action + " -> " + truncate(edge.toScreen, 40));
                 }
             }
             System.out.println();
         }
         
+        List<String> errors = journal.errors();
         if (!errors.isEmpty()) {
             System.out.println("\nERRORS:");
+            if (journal.errorCount() > errors.size()) {
+                System.out.println("  (" + (journal.errorCount() - errors.size()) + " older errors only in the journal)");
+            }
             for (String err : errors) {
                 System.out.println("  - " + err);
             }
         }
+        if (journal.file() != null) {
+            System.out.println("\nJournal: " + journal.file()
+                + (journal.dropped() > 0 ? " (" + journal.dropped() + " events dropped)" : ""));
+        }
     }
 
     private int getTotalElements() {
@@ -990,20 +1279,166 @@ public class Explorer {
 
     public Set<String> getVisitedScreens() { return visitedScreens; }
     public Map<String, ScreenNode> getScreenMap() { return screenGraph; }
-    public List<String> getErrors() { return errors; }
+    public List<String> getErrors() { return journal.errors(); }
     public Map<String, ScreenNode> getNavigationGraph() { return screenGraph; }
 
+    // Compact on purpose, large apps reach tens of thousands of screens: the path is a parent
+    // pointer plus the interned element tapped there, edges are two int arrays of interned ids,
+    // and pathFromRoot()/outgoingEdges()/toScreenInfo() are built on demand from those.
     public static class ScreenNode {
-        public String id;
-        public List<NavigationStep> pathFromRoot;  // How to reach this screen from app start
+        public final String id;
         public List<ElementInfo> elements = new ArrayList<>();
-        public List<NavigationStep> outgoingEdges = new ArrayList<>();  // Where you can go from here
+        public String activity;  // Activity it was seen in, for relaunching after a crash
+        // Hash index over elements by key; add through addElement() so it stays in sync
+        private final Map<String, ElementInfo> byKey = new HashMap<>();
+        private final Ids ids;
+        // Shortest known way in: tap `via` on `parent` ("trigger → item" for menu items).
+        // No parent and not the root means no path is known.
+        private ScreenNode parent;
+        private int via = -1;
+        private boolean root;
+        private int[] edgeVia = new int[0];
+        private int[] edgeTo = new int[0];
+        private int edgeCount;
+
+        ScreenNode(String id, Ids ids) {
+            this.ids = ids;
+            this.id = ids.intern(id);
+        }
+
+        // False when an element with the same key is already on this screen
+        public synchronized boolean addElement(ElementInfo el) {
+            if (byKey.containsKey(el.key())) return false;
+            el.intern(ids);
+            byKey.put(el.key(), el);
+            elements.add(el);
+            return true;
+        }
+
+        public synchronized boolean hasElement(ElementInfo el) {
+            return byKey.containsKey(el.key());
+        }
 
-        ScreenNode(String id) { 
-            this.id = id; 
+        // First element recorded under this display id, or null. Only asked for menu triggers
+        // and path steps, so a scan of the screen's few dozen elements beats a second index
+        public synchronized ElementInfo element(String id) {
+            for (ElementInfo el : elements) {
+                if (el.id != null && el.id.equals(id)) return el;
+            }
+            return null;
+        }
+
+        void markRoot() {
+            synchronized (PATHS) {
+                root = true;
+                parent = null;
+                via = -1;
+            }
+        }
+
+        // Steps from the root, -1 when no path is known
+        public int depth() {
+            synchronized (PATHS) {
+                int depth = 0;
+                for (ScreenNode at = this; !at.root; at = at.parent) {
+                    if (at.parent == null) return -1;
+                    depth++;
+                }
+                return depth;
+            }
+        }
+
+        // Takes the route through `from` when it is shorter than the known one. A parent is
+        // always strictly shallower, so parent pointers can never form a cycle.
+        boolean offerPath(ScreenNode from, String element) {
+            synchronized (PATHS) {
+                if (root || from == this) return false;
+                int through = from.depth();
+                if (through < 0) return false;
+                int known = depth();
+                if (known >= 0 && known <= through + 1) return false;
+                parent = from;
+                via = ids.of(element);
+                return true;
+            }
+        }
+
+        // How to reach this screen from app start, null when unknown. Menu items expand to
+        // the trigger tap plus the item tap, through the "<screen>|menu" pseudo screen.
+        public List<NavigationStep> pathFromRoot() {
+            synchronized (PATHS) {
+                LinkedList<NavigationStep> path = new LinkedList<>();
+                for (ScreenNode at = this; !at.root; at = at.parent) {
+                    if (at.parent == null) return null;
+                    String from = at.parent.id;
+                    String[] taps = ids.name(at.via).split(" → ", 2);
+                    if (taps.length == 2) {
+                        path.addFirst(new NavigationStep(from + "|menu", taps[1], at.id));
+                        path.addFirst(new NavigationStep(from, taps[0], from + "|menu"));
+                    } else {
+                        path.addFirst(new NavigationStep(from, taps[0], at.id));
+                    }
+                }
+                return new ArrayList<>(path);
+            }
+        }
+
+        // Where you can go from here; a copy, change it through addEdge() and friends
+        public synchronized List<NavigationStep> outgoingEdges() {
+            List<NavigationStep> edges = new ArrayList<>(edgeCount);
+            for (int i = 0; i < edgeCount; i++) {
+                edges.add(new NavigationStep(id, ids.name(edgeVia[i]), ids.name(edgeTo[i])));
+            }
+            return edges;
+        }
+
+        public synchronized int edgeCount() { return edgeCount; }
+
+        synchronized String edgeVia(int i) { return ids.name(edgeVia[i]); }
+
+        synchronized String edgeTo(int i) { return ids.name(edgeTo[i]); }
+
+        // False when the same tap to the same screen is already recorded
+        public synchronized boolean addEdge(String element, String to) {
+            int v = ids.of(element), t = ids.of(to);
+            for (int i = 0; i < edgeCount; i++) {
+                if (edgeVia[i] == v && edgeTo[i] == t) return false;
+            }
+            if (edgeCount == edgeVia.length) {
+                int grown = Math.max(4, edgeCount * 2);
+                edgeVia = Arrays.copyOf(edgeVia, grown);
+                edgeTo = Arrays.copyOf(edgeTo, grown);
+            }
+            edgeVia[edgeCount] = v;
+            edgeTo[edgeCount] = t;
+            edgeCount++;
+            return true;
+        }
+
+        // Drops every edge taken by tapping `element`
+        public synchronized void removeEdges(String element) {
+            int v = ids.find(element);
+            if (v < 0) return;
+            int kept = 0;
+            for (int i = 0; i < edgeCount; i++) {
+                if (edgeVia[i] == v) continue;
+                edgeVia[kept] = edgeVia[i];
+                edgeTo[kept] = edgeTo[i];
+                kept++;
+            }
+            edgeCount = kept;
+        }
+
+        public synchronized boolean hasEdge(String element) {
+            int v = ids.find(element);
+            if (v < 0) return false;
+            for (int i = 0; i < edgeCount; i++) {
+                if (edgeVia[i] == v) return true;
+            }
+            return false;
         }
         
-        public ScreenInfo toScreenInfo() {
+        public synchronized ScreenInfo toScreenInfo() {
             ScreenInfo info = new ScreenInfo(id);
             info.allElements.addAll(elements);
             for (ElementInfo el : elements) {
@@ -1014,7 +1449,13 @@ public class Explorer {
         }
     }
 
+    // Guards parent pointers across screens so depth and path walks see a consistent tree
+    private static final Object PATHS = new Object();
+
     public static class NavigationStep {
+        // elementTapped of a system back press
+        public static final String BACK = "BACK";
+
         public String fromScreen;
         public String elementTapped;
         public String toScreen;
@@ -1025,6 +1466,10 @@ public class Explorer {
             this.toScreen = to;
         }
         
+        public boolean isBack() {
+            return BACK.equals(elementTapped);
+        }
+
         @Override
         public String toString() {
             return elementTapped;
@@ -1041,10 +1486,40 @@ public class Explorer {
         public boolean isTextField = false;
         public boolean isTextView = false;
         public boolean interacted = false;
+        // Stable identity on its screen, see keyOf()
+        public String key;
         
         // How to reach this element (for popup/menu items)
-        public String triggeredBy;  // Which element shows this one
-        public List<NavigationStep> pathToTrigger;  // Path to the screen + trigger element
+        public String triggeredBy;  // Which element shows this one, reached through the screen's path
+
+        private static final int KEY_BUCKET_PX = 256;
+
+        // Resource-id (display id when there is none), class and horizontal bounds bucket.
+        // The vertical position is left out so an element keeps its key while a list scrolls.
+        static String keyOf(ElementInfo el, int centerX) {
+            String name = el.resourceId != null && !el.resourceId.isEmpty() ? el.resourceId : el.id;
+            return name + "|" + el.className + "|" + (centerX / KEY_BUCKET_PX);
+        }
+
+        // Swaps ids, keys and class names for the shared instance; done once the element joins the
+        // graph, so candidates dropped during discovery never reach the table. Text and content
+        // descriptions are free-form and never compared as ids, they stay as they are
+        void intern(Ids ids) {
+            id = ids.intern(id);
+            resourceId = ids.intern(resourceId);
+            className = ids.intern(className);
+            triggeredBy = ids.intern(triggeredBy);
+            key = ids.intern(key());
+        }
+
+        // Elements loaded from stores written before keys existed have no bounds, bucket "?"
+        public String key() {
+            if (key == null) {
+                String name = resourceId != null && !resourceId.isEmpty() ? resourceId : id;
+                key = name + "|" + className + "|?";
+            }
+            return key;
+        }
     }
 
     public static class ScreenInfo {
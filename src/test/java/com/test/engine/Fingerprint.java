@@ -0,0 +1,126 @@
+package com.test.engine;
+
+import java.util.*;
+
+// Structural identity of a screen: a 64-bit SimHash over the layout skeleton
+// (class and resource-id with their parent), ignoring text, bounds and how many
+// times a list row repeats. Near-identical layouts land a few bits apart.
+public final class Fingerprint {
+
+    // Hamming distance at or below which two screens count as the same state
+    public static final int SIMILAR_BITS = 3;
+
+    public final long simHash;
+    public final String label;
+
+    private Fingerprint(long simHash, String label) {
+        this.simHash = simHash;
+        this.label = label;
+    }
+
+    public static Fingerprint of(Snapshot snapshot) {
+        Set<String> features = new HashSet<>();
+        List<String> texts = new ArrayList<>();
+        for (Snapshot.Node n : snapshot.nodes()) {
+            String parent = n.parent != null ? shortName(n.parent.className) + "/" + shortId(n.parent.resourceId) : "";
+            features.add(parent + ">" + shortName(n.className) + "/" + shortId(n.resourceId));
+            // A couple of short texts make the id readable; they do not affect identity
+            if (texts.size() < 2 && n.text != null && !n.text.isEmpty() && n.text.length() < 30
+                    && "android.widget.TextView".equals(n.className) && n.isVisible()) {
+                texts.add(n.text);
+            }
+        }
+        return new Fingerprint(simHash(features), texts.isEmpty() ? "screen" : String.join("|", texts));
+    }
+
+    public int distance(Fingerprint other) {
+        return Long.bitCount(simHash ^ other.simHash);
+    }
+
+    public double similarity(Fingerprint other) {
+        return 1.0 - distance(other) / 64.0;
+    }
+
+    public boolean isSimilar(Fingerprint other) {
+        return distance(other) <= SIMILAR_BITS;
+    }
+
+    public String id() {
+        return label + "#" + String.format("%016x", simHash);
+    }
+
+    @Override
+    public String toString() {
+        return id();
+    }
+
+    private static long simHash(Set<String> features) {
+        int[] weights = new int[64];
+        for (String feature : features) {
+            long h = hash64(feature);
+            for (int bit = 0; bit < 64; bit++) {
+                weights[bit] += ((h >>> bit) & 1) == 1 ? 1 : -1;
+            }
+        }
+        long result = 0;
+        for (int bit = 0; bit < 64; bit++) {
+            if (weights[bit] > 0) result |= 1L << bit;
+        }
+        return result;
+    }
+
+    // FNV-1a with a final avalanche so similar strings spread over all bits
+    private static long hash64(String s) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < s.length(); i++) {
+            h ^= s.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static String shortName(String className) {
+        if (className == null) return "";
+        return className.substring(className.lastIndexOf('.') + 1);
+    }
+
+    private static String shortId(String resourceId) {
+        if (resourceId == null) return "";
+        return resourceId.substring(resourceId.lastIndexOf('/') + 1);
+    }
+
+    // Maps fingerprints to stable screen ids, merging near-identical states into the first one seen
+    public static final class Index {
+        private final Map<Long, String> exact = new HashMap<>();
+        private final Map<String, Fingerprint> known = new LinkedHashMap<>();
+
+        public synchronized String identify(Fingerprint fp) {
+            String id = exact.get(fp.simHash);
+            if (id != null) return id;
+            for (Map.Entry<String, Fingerprint> e : known.entrySet()) {
+                if (e.getValue().isSimilar(fp)) {
+                    exact.put(fp.simHash, e.getKey());
+                    return e.getKey();
+                }
+            }
+            id = fp.id();
+            known.put(id, fp);
+            exact.put(fp.simHash, id);
+            return id;
+        }
+
+        // Re-attaches a fingerprint loaded from a previous run to its screen id
+        public synchronized void register(String id, long simHash) {
+            Fingerprint fp = new Fingerprint(simHash, id.contains("#") ? id.substring(0, id.lastIndexOf('#')) : id);
+            known.put(id, fp);
+            exact.put(simHash, id);
+        }
+
+        public synchronized Fingerprint fingerprintOf(String id) {
+            return known.get(id);
+        }
+    }
+}
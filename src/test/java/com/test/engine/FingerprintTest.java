@@ -0,0 +1,56 @@
+package com.test.engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FingerprintTest {
+
+    @Test
+    void textAndRepeatedRowsDoNotChangeTheFingerprint() {
+        Fingerprint one = Fingerprint.of(Snapshot.parse(screen("Backpack", 2)));
+        Fingerprint other = Fingerprint.of(Snapshot.parse(screen("Bike Light", 5)));
+
+        assertThat(other.simHash).isEqualTo(one.simHash);
+        assertThat(one.label).isEqualTo("Products|Backpack");
+        assertThat(one.id()).isEqualTo("Products|Backpack#" + String.format("%016x", one.simHash));
+    }
+
+    @Test
+    void indexMergesNearIdenticalScreens() {
+        Fingerprint fp = Fingerprint.of(Snapshot.parse(screen("Backpack", 2)));
+        Fingerprint.Index index = new Fingerprint.Index();
+        // Known from an earlier run, a few bits off
+        index.register("Catalog#1", fp.simHash ^ 0b1011);
+
+        assertThat(index.identify(fp)).isEqualTo("Catalog#1");
+        assertThat(index.fingerprintOf("Catalog#1").label).isEqualTo("Catalog");
+    }
+
+    @Test
+    void indexKeepsDistantScreensApart() {
+        Fingerprint fp = Fingerprint.of(Snapshot.parse(screen("Backpack", 2)));
+        Fingerprint.Index index = new Fingerprint.Index();
+        index.register("Catalog#1", fp.simHash ^ 0b11110);
+
+        assertThat(index.identify(fp)).isEqualTo(fp.id());
+        assertThat(index.identify(fp)).isEqualTo(fp.id());
+        assertThat(index.fingerprintOf(fp.id()).distance(index.fingerprintOf("Catalog#1"))).isEqualTo(4);
+        assertThat(fp.similarity(index.fingerprintOf("Catalog#1"))).isEqualTo(1.0 - 4 / 64.0);
+    }
+
+    private static String screen(String product, int rows) {
+        StringBuilder xml = new StringBuilder("<hierarchy>"
+            + "<node class=\"android.widget.FrameLayout\" resource-id=\"\" bounds=\"[0,0][1080,1920]\">"
+            + "<node class=\"android.widget.TextView\" resource-id=\"com.app:id/title\" text=\"Products\""
+            + " displayed=\"true\" bounds=\"[0,0][1080,100]\"/>"
+            + "<node class=\"androidx.recyclerview.widget.RecyclerView\" resource-id=\"com.app:id/list\""
+            + " bounds=\"[0,100][1080,1920]\">");
+        for (int i = 0; i < rows; i++) {
+            xml.append("<node class=\"android.widget.TextView\" resource-id=\"com.app:id/name\" text=\"")
+                .append(product).append("\" displayed=\"true\" bounds=\"[0,").append(100 + i * 200)
+                .append("][1080,").append(300 + i * 200).append("]\"/>");
+        }
+        return xml.append("</node></node></hierarchy>").toString();
+    }
+}
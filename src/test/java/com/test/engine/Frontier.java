@@ -0,0 +1,194 @@
+package com.test.engine;
+
+import java.util.*;
+import java.util.function.Function;
+
+// Unexplored (screen, element) pairs shared by exploration workers.
+// Items are deduplicated by key and handed out best-first according to the strategy.
+// take() blocks while other workers are still busy, because the item they are processing
+// may add more work, and returns null once the queue is empty with nobody in flight,
+// or the deadline passes.
+public class Frontier {
+
+    // Lower score is taken first; ties go to the oldest item
+    public enum Strategy {
+        // Shallowest screens first
+        BFS,
+        // Newest item first, so a freshly opened screen is finished before its siblings
+        DFS,
+        // Screens that have had the fewest taps so far
+        NOVELTY,
+        // Screens with the most untried clickables
+        UNTRIED,
+        // Whatever is cheapest to reach from where the worker is now
+        COST,
+        // Cheap to reach, weighted by how little of the screen has been tried and by how likely
+        // the tap is to find something new
+        HYBRID,
+        // Most new screens expected per tap spent, counting the taps to get there
+        YIELD;
+
+        // `routes`: taps from the worker's screen to each screen it has a known route to
+        double score(Item item, Frontier f, Map<String, Integer> routes) {
+            return switch (this) {
+                case BFS -> item.depth;
+                case DFS -> -item.seq;
+                case NOVELTY -> f.taken(item.screenId) * 1000 + item.depth;
+                case UNTRIED -> -f.pending(item.screenId) * 1000 + item.depth;
+                case COST -> cost(item, routes);
+                // A sure dud weighs like four extra taps
+                case HYBRID -> cost(item, routes) + f.taken(item.screenId) - Math.min(f.pending(item.screenId), 5)
+                    + 4 * (1 - f.yield(item));
+                case YIELD -> -f.yield(item) / (cost(item, routes) + 1);
+            };
+        }
+
+        // Taps needed before the tap itself: the shortest known route from the worker's screen
+        // (0 when already there) plus the menu trigger; without a route, a relaunch and the
+        // path replay, which costs about three taps more than the path
+        private static double cost(Item item, Map<String, Integer> routes) {
+            Integer route = routes.get(item.screenId);
+            if (route == null) return item.depth + 3;
+            return route + (item.trigger != null ? 1 : 0);
+        }
+
+        boolean usesRoutes() {
+            return this == COST || this == HYBRID || this == YIELD;
+        }
+    }
+
+    private final List<Item> queue = new ArrayList<>();
+    private final Set<String> seen = new HashSet<>();
+    private final Map<String, Integer> pending = new HashMap<>();
+    private final Map<String, Integer> taken = new HashMap<>();
+    private final Set<Item> inFlight = new LinkedHashSet<>();
+    private final TransitionModel model;
+    // Taps from a screen to every screen reachable from it, see Navigator.distances()
+    private final Function<String, Map<String, Integer>> routes;
+    private volatile Strategy strategy;
+    private long nextSeq;
+
+    public Frontier(Strategy strategy) {
+        this(strategy, null, null);
+    }
+
+    public Frontier(Strategy strategy, TransitionModel model, Function<String, Map<String, Integer>> routes) {
+        this.strategy = strategy;
+        this.model = model;
+        this.routes = routes;
+    }
+
+    public synchronized void strategy(Strategy strategy) {
+        this.strategy = strategy;
+    }
+
+    public synchronized boolean offer(Item item) {
+        if (!seen.add(item.key)) return false;
+        item.seq = nextSeq++;
+        queue.add(item);
+        pending.merge(item.screenId, 1, Integer::sum);
+        notifyAll();
+        return true;
+    }
+
+    // Best item for a worker currently on screen `here` (may be null). Routes are planned before
+    // taking the lock, because Navigator locks screen nodes and workers offer while holding one.
+    public Item take(String here, long deadline) throws InterruptedException {
+        Map<String, Integer> distances;
+        if (here == null) {
+            distances = Map.of();
+        } else if (routes != null && strategy.usesRoutes()) {
+            distances = routes.apply(here);
+        } else {
+            distances = Map.of(here, 0);
+        }
+        return take(distances, deadline);
+    }
+
+    private synchronized Item take(Map<String, Integer> distances, long deadline) throws InterruptedException {
+        while (queue.isEmpty()) {
+            long left = deadline - System.currentTimeMillis();
+            if (inFlight.isEmpty() || left <= 0) return null;
+            wait(left);
+        }
+        // Linear scan: scores depend on live counts, and the queue is small next to a device round-trip
+        int best = 0;
+        double bestScore = Double.MAX_VALUE;
+        for (int i = 0; i < queue.size(); i++) {
+            Item item = queue.get(i);
+            double score = strategy.score(item, this, distances);
+            if (score < bestScore) {
+                best = i;
+                bestScore = score;
+            }
+        }
+        Item item = queue.remove(best);
+        pending.merge(item.screenId, -1, Integer::sum);
+        taken.merge(item.screenId, 1, Integer::sum);
+        inFlight.add(item);
+        return item;
+    }
+
+    public synchronized void done(Item item) {
+        inFlight.remove(item);
+        notifyAll();
+    }
+
+    public synchronized int size() {
+        return queue.size();
+    }
+
+    // Keys of items taken but not finished, for checkpoints
+    public synchronized List<String> inFlight() {
+        List<String> keys = new ArrayList<>();
+        for (Item item : inFlight) keys.add(item.key);
+        return keys;
+    }
+
+    int pending(String screenId) {
+        return pending.getOrDefault(screenId, 0);
+    }
+
+    int taken(String screenId) {
+        return taken.getOrDefault(screenId, 0);
+    }
+
+    // Predicted chance the item finds something new, a flat 0.5 without a model
+    double yield(Item item) {
+        return model != null ? model.predict(item.features()) : 0.5;
+    }
+
+    public static final class Item {
+        public final String screenId;
+        public final Explorer.ElementInfo element;
+        // Element that has to be tapped first to reveal this one (menu, popup), or null
+        public final Explorer.ElementInfo trigger;
+        // Taps from the root to its screen when queued; the route itself is looked up on the graph
+        public final int depth;
+        // Screen plus the element's stable key (resource-id, class, position), so two elements
+        // sharing a display id stay apart and the key survives between runs
+        final String key;
+        long seq;
+        private List<String> features;
+
+        Item(String screenId, Explorer.ElementInfo element, Explorer.ElementInfo trigger,
+             int depth) {
+            this.screenId = screenId;
+            this.element = element;
+            this.trigger = trigger;
+            this.depth = depth;
+            this.key = screenId + "|" + (trigger != null ? "menu|" : "") + element.key();
+        }
+
+        // Transition model features of the element, worked out once per item
+        public synchronized List<String> features() {
+            if (features == null) features = TransitionModel.features(element);
+            return features;
+        }
+
+        @Override
+        public String toString() {
+            return (trigger != null ? trigger.id + " → " : "") + element.id;
+        }
+    }
+}
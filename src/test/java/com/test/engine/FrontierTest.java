@@ -0,0 +1,150 @@
+package com.test.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FrontierTest {
+
+    private final Frontier frontier = new Frontier(Frontier.Strategy.BFS);
+
+    @Test
+    void itemsAreOfferedOnce() {
+        assertThat(frontier.offer(item("Home", "loginBtn", 0))).isTrue();
+        assertThat(frontier.offer(item("Home", "loginBtn", 0))).isFalse();
+        assertThat(frontier.offer(item("Home", "cartBtn", 0))).isTrue();
+
+        assertThat(frontier.size()).isEqualTo(2);
+    }
+
+    @Test
+    void emptyWithNothingInFlightMeansDone() throws InterruptedException {
+        assertThat(frontier.take("Home", later(5000))).isNull();
+    }
+
+    @Test
+    void takeWaitsForWorkFromItemsInFlight() throws Exception {
+        frontier.offer(item("Home", "loginBtn", 0));
+        Frontier.Item first = frontier.take("Home", later(5000));
+        assertThat(frontier.inFlight()).containsExactly("Home|" + first.element.key());
+
+        // Another worker waits: the item in flight may still open a screen
+        CompletableFuture<Frontier.Item> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return frontier.take("Home", later(5000));
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        Thread.sleep(50);
+        assertThat(waiting).isNotDone();
+
+        frontier.offer(item("Login", "submitBtn", 1));
+        frontier.done(first);
+
+        assertThat(waiting.get(5, TimeUnit.SECONDS).element.id).isEqualTo("submitBtn");
+        assertThat(frontier.inFlight()).hasSize(1);
+    }
+
+    @Test
+    void lastWorkerFinishingReleasesTheOthers() throws Exception {
+        frontier.offer(item("Home", "loginBtn", 0));
+        Frontier.Item only = frontier.take("Home", later(5000));
+        CompletableFuture<Frontier.Item> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return frontier.take("Home", later(5000));
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        frontier.done(only);
+
+        assertThat(waiting.get(5, TimeUnit.SECONDS)).isNull();
+        assertThat(frontier.inFlight()).isEmpty();
+    }
+
+    @Test
+    void takeStopsAtTheDeadline() throws InterruptedException {
+        frontier.offer(item("Home", "loginBtn", 0));
+        frontier.take("Home", later(5000));
+
+        long start = System.currentTimeMillis();
+        assertThat(frontier.take("Home", later(50))).isNull();
+        assertThat(System.currentTimeMillis() - start).isLessThan(2000);
+    }
+
+    @Test
+    void bfsTakesTheShallowestAndDfsTheNewest() throws InterruptedException {
+        frontier.offer(item("Home", "a", 0));
+        frontier.offer(item("Cart", "b", 2));
+        frontier.offer(item("Login", "c", 1));
+
+        assertThat(frontier.take("Home", later(5000)).element.id).isEqualTo("a");
+        frontier.strategy(Frontier.Strategy.DFS);
+        assertThat(frontier.take("Home", later(5000)).element.id).isEqualTo("c");
+        assertThat(frontier.take("Home", later(5000)).element.id).isEqualTo("b");
+    }
+
+    @Test
+    void noveltyAndUntriedLookAtScreenCounts() throws InterruptedException {
+        Frontier novelty = new Frontier(Frontier.Strategy.NOVELTY);
+        novelty.offer(item("Home", "a", 0));
+        novelty.offer(item("Home", "b", 0));
+        novelty.offer(item("Cart", "c", 1));
+        // Home already had a tap, so the untouched Cart goes first despite being deeper
+        assertThat(novelty.take("Home", later(5000)).element.id).isEqualTo("a");
+        assertThat(novelty.take("Home", later(5000)).element.id).isEqualTo("c");
+
+        Frontier untried = new Frontier(Frontier.Strategy.UNTRIED);
+        untried.offer(item("Home", "a", 0));
+        untried.offer(item("Cart", "b", 1));
+        untried.offer(item("Cart", "c", 1));
+        assertThat(untried.take("Home", later(5000)).screenId).isEqualTo("Cart");
+    }
+
+    @Test
+    void costFollowsTheKnownRoutes() throws InterruptedException {
+        Map<String, Map<String, Integer>> routes = Map.of(
+            "Cart", Map.of("Cart", 0, "Home", 1),
+            "Home", Map.of("Home", 0, "Cart", 1));
+        Frontier cost = new Frontier(Frontier.Strategy.COST, null, routes::get);
+        cost.offer(item("Home", "a", 0));
+        cost.offer(item("Cart", "b", 3));
+        // No route to Login: relaunch and replay, depth + 3
+        cost.offer(item("Login", "c", 1));
+        cost.offer(new Frontier.Item("Cart", element("d"), element("menu"), 3));
+
+        assertThat(cost.take("Cart", later(5000)).element.id).isEqualTo("b");
+        // Home is one tap away, the menu item on Cart needs its trigger first: a tie, oldest wins
+        assertThat(cost.take("Cart", later(5000)).element.id).isEqualTo("a");
+        assertThat(cost.take("Cart", later(5000)).element.id).isEqualTo("d");
+        assertThat(cost.take("Cart", later(5000)).element.id).isEqualTo("c");
+    }
+
+    @Test
+    void hybridPrefersScreensWithWorkLeft() throws InterruptedException {
+        Frontier hybrid = new Frontier(Frontier.Strategy.HYBRID, null, here -> Map.of(here, 0));
+        hybrid.offer(item("Home", "a", 0));
+        hybrid.offer(item("Cart", "b", 0));
+        hybrid.offer(item("Cart", "c", 0));
+
+        assertThat(hybrid.take(null, later(5000)).screenId).isEqualTo("Cart");
+    }
+
+    static Frontier.Item item(String screen, String id, int depth) {
+        return new Frontier.Item(screen, element(id), null, depth);
+    }
+
+    static Explorer.ElementInfo element(String id) {
+        return GraphStoreTest.element(id, "com.app:id/" + id, "android.widget.Button", 100);
+    }
+
+    static long later(long ms) {
+        return System.currentTimeMillis() + ms;
+    }
+}
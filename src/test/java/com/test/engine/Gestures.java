@@ -0,0 +1,136 @@
+package com.test.engine;
+
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.interactions.Interaction;
+import org.openqa.selenium.interactions.KeyInput;
+import org.openqa.selenium.interactions.Pause;
+import org.openqa.selenium.interactions.PointerInput;
+import org.openqa.selenium.interactions.Sequence;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Collects taps, swipes, key presses and pauses and sends them as one W3C actions request.
+// Locator taps are resolved against a single snapshot, so a batch should stay on one screen.
+// Like Session.tap(), a locator that is not tappable yet is waited for (up to 'wait').
+public class Gestures {
+
+    private static final Duration PRESS = Duration.ofMillis(80);
+    private static final Duration BETWEEN_TAPS = Duration.ofMillis(150);
+    private static final Duration SWIPE = Duration.ofMillis(300);
+
+    private final Session session;
+    private final PointerInput finger = new PointerInput(PointerInput.Kind.TOUCH, "finger");
+    private final KeyInput keyboard = new KeyInput("keyboard");
+    private final Sequence touch = new Sequence(finger, 0);
+    private final Sequence keys = new Sequence(keyboard, 0);
+    private boolean usesKeys;
+    private int actions;
+    private Snapshot snapshot;
+
+    Gestures(Session session) {
+        this.session = session;
+    }
+
+    public Gestures tap(String locator) {
+        return tap(locator, 1);
+    }
+
+    public Gestures tap(String locator, int times) {
+        Snapshot.Node node = resolve(locator);
+        for (int i = 0; i < times; i++) {
+            if (i > 0) pause(BETWEEN_TAPS);
+            tap(node.centerX(), node.centerY());
+        }
+        return this;
+    }
+
+    public Gestures tap(int x, int y) {
+        touchAction(finger.createPointerMove(Duration.ZERO, PointerInput.Origin.viewport(), x, y));
+        touchAction(finger.createPointerDown(PointerInput.MouseButton.LEFT.asArg()));
+        touchAction(new Pause(finger, PRESS));
+        touchAction(finger.createPointerUp(PointerInput.MouseButton.LEFT.asArg()));
+        return this;
+    }
+
+    public Gestures swipe(int fromX, int fromY, int toX, int toY, Duration duration) {
+        touchAction(finger.createPointerMove(Duration.ZERO, PointerInput.Origin.viewport(), fromX, fromY));
+        touchAction(finger.createPointerDown(PointerInput.MouseButton.LEFT.asArg()));
+        touchAction(finger.createPointerMove(duration, PointerInput.Origin.viewport(), toX, toY));
+        touchAction(finger.createPointerUp(PointerInput.MouseButton.LEFT.asArg()));
+        return this;
+    }
+
+    // Finger moves up, content moves down the list
+    public Gestures scrollDown() {
+        Dimension size = session.viewport();
+        return swipe(size.width / 2, (int) (size.height * 0.7), size.width / 2, (int) (size.height * 0.3), SWIPE);
+    }
+
+    public Gestures scrollUp() {
+        Dimension size = session.viewport();
+        return swipe(size.width / 2, (int) (size.height * 0.3), size.width / 2, (int) (size.height * 0.7), SWIPE);
+    }
+
+    // A W3C key value, e.g. a character or org.openqa.selenium.Keys.ENTER
+    public Gestures key(CharSequence key) {
+        int codePoint = key.toString().codePointAt(0);
+        usesKeys = true;
+        keyAction(keyboard.createKeyDown(codePoint));
+        keyAction(keyboard.createKeyUp(codePoint));
+        return this;
+    }
+
+    public Gestures pause(Duration duration) {
+        touchAction(new Pause(finger, duration));
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return actions == 0;
+    }
+
+    // Sends everything collected so far in one request
+    public void perform() {
+        if (isEmpty()) return;
+        List<Sequence> sequences = new ArrayList<>();
+        sequences.add(touch);
+        if (usesKeys) sequences.add(keys);
+        session.driver().perform(sequences);
+    }
+
+    // Both devices advance one tick per action so touch and key input keep their order
+    private void touchAction(Interaction action) {
+        touch.addAction(action);
+        keys.addAction(new Pause(keyboard, Duration.ZERO));
+        actions++;
+    }
+
+    private void keyAction(Interaction action) {
+        keys.addAction(action);
+        touch.addAction(new Pause(finger, Duration.ZERO));
+        actions++;
+    }
+
+    private Snapshot.Node resolve(String locator) {
+        if (Snapshot.supports(locator)) {
+            Snapshot.Node node = snapshot != null ? tappable(snapshot, locator) : null;
+            if (node == null) {
+                // Fails with an AssertionError after the timeout, as a waited find would
+                snapshot = session.expect(locator + " to be tappable", s -> tappable(s, locator) != null);
+                node = tappable(snapshot, locator);
+            }
+            return node;
+        }
+        throw new IllegalArgumentException("Gesture batches need an id/text/desc/class locator: " + locator);
+    }
+
+    // Visible and enabled, what elementToBeClickable checks before a click
+    private static Snapshot.Node tappable(Snapshot snapshot, String locator) {
+        for (Snapshot.Node node : snapshot.findAll(locator)) {
+            if (node.isVisible() && node.enabled) return node;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,191 @@
+package com.test.engine;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+// Saves the exploration graph to a compact tab separated file and loads it back.
+// One record per line, the first column is the record type:
+//   S id simhash act     screen, its fingerprint and the activity it was seen in
+//   P id from elem to    one step of the screen's path from root, in order
+//   E id ...             one element of the screen
+//   O id from elem to    outgoing navigation edge
+//   V key                element already tapped, "<screen>|[menu|]<element key>"
+public class GraphStore {
+
+    private static final String HEADER = "# explorer graph v2";
+
+    private final Path file;
+
+    public GraphStore(Path file) {
+        this.file = file;
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    public boolean exists() {
+        return Files.exists(file);
+    }
+
+    public void save(Map<String, Explorer.ScreenNode> graph, Set<String> visitedElements, Fingerprint.Index screens) {
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (BufferedWriter out = Files.newBufferedWriter(tmp)) {
+                out.write(HEADER);
+                out.newLine();
+                for (Explorer.ScreenNode node : graph.values()) {
+                    Fingerprint fp = screens.fingerprintOf(node.id);
+                    write(out, "S", node.id, fp != null ? Long.toHexString(fp.simHash) : "", node.activity);
+                    List<Explorer.NavigationStep> path = node.pathFromRoot();
+                    if (path != null) {
+                        for (Explorer.NavigationStep step : path) {
+                            write(out, "P", node.id, step.fromScreen, step.elementTapped, step.toScreen);
+                        }
+                    }
+                    // Workers keep adding to the node while a checkpoint is written; copy it under its lock
+                    List<Explorer.ElementInfo> elements;
+                    List<Explorer.NavigationStep> edges;
+                    synchronized (node) {
+                        elements = new ArrayList<>(node.elements);
+                        edges = node.outgoingEdges();
+                    }
+                    for (Explorer.ElementInfo el : elements) {
+                        write(out, "E", node.id, el.id, el.resourceId, el.text, el.contentDesc, el.className,
+                            flags(el), el.triggeredBy, el.key());
+                    }
+                    for (Explorer.NavigationStep edge : edges) {
+                        write(out, "O", node.id, edge.fromScreen, edge.elementTapped, edge.toScreen);
+                    }
+                }
+                for (String key : visitedElements) {
+                    write(out, "V", key);
+                }
+            }
+            // Replace in one step so a crash mid-write never leaves a truncated store
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot save exploration graph to " + file, e);
+        }
+    }
+
+    // Nodes are created with the run's string table `ids`
+    public void load(Map<String, Explorer.ScreenNode> graph, Ids ids, Set<String> visitedElements,
+                     Fingerprint.Index screens) {
+        // Paths come back as parent pointers once every screen exists, see linkPaths()
+        Map<String, List<Explorer.NavigationStep>> paths = new LinkedHashMap<>();
+        try (BufferedReader in = Files.newBufferedReader(file)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                String[] f = line.split("\t", -1);
+                for (int i = 0; i < f.length; i++) f[i] = unescape(f[i]);
+                switch (f[0]) {
+                    case "S" -> {
+                        Explorer.ScreenNode node = graph.computeIfAbsent(f[1], id -> new Explorer.ScreenNode(id, ids));
+                        paths.put(node.id, new ArrayList<>());
+                        if (f[2] != null && !f[2].isEmpty()) {
+                            screens.register(f[1], Long.parseUnsignedLong(f[2], 16));
+                        }
+                        if (f.length > 3) node.activity = f[3];
+                    }
+                    case "P" -> paths.get(f[1]).add(new Explorer.NavigationStep(f[2], f[3], f[4]));
+                    case "E" -> {
+                        Explorer.ScreenNode node = graph.get(f[1]);
+                        Explorer.ElementInfo el = new Explorer.ElementInfo();
+                        el.id = f[2];
+                        el.resourceId = f[3];
+                        el.text = f[4];
+                        el.contentDesc = f[5];
+                        el.className = f[6];
+                        el.isClickable = f[7].contains("c");
+                        el.isTextField = f[7].contains("f");
+                        el.isTextView = f[7].contains("t");
+                        el.interacted = f[7].contains("i");
+                        el.triggeredBy = f[8];
+                        if (f.length > 9) el.key = f[9];
+                        node.addElement(el);
+                    }
+                    case "O" -> graph.get(f[1]).addEdge(f[3], f[4]);
+                    case "V" -> visitedElements.add(f[1]);
+                    default -> { } // unknown record from a newer format, skip it
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot load exploration graph from " + file, e);
+        }
+        linkPaths(graph, paths);
+    }
+
+    // A screen with an empty path is a root. Otherwise its parent is where the last step starts
+    // (the screen behind the "|menu" pseudo screen for a menu item). Shortest paths go first so
+    // a parent is always linked before the screens reached through it.
+    private static void linkPaths(Map<String, Explorer.ScreenNode> graph, Map<String, List<Explorer.NavigationStep>> paths) {
+        List<Map.Entry<String, List<Explorer.NavigationStep>>> ordered = new ArrayList<>(paths.entrySet());
+        ordered.sort(Comparator.comparingInt(e -> e.getValue().size()));
+        for (Map.Entry<String, List<Explorer.NavigationStep>> entry : ordered) {
+            Explorer.ScreenNode node = graph.get(entry.getKey());
+            List<Explorer.NavigationStep> path = entry.getValue();
+            if (path.isEmpty()) {
+                node.markRoot();
+                continue;
+            }
+            Explorer.NavigationStep last = path.get(path.size() - 1);
+            String from = last.fromScreen;
+            String via = last.elementTapped;
+            if (from.endsWith("|menu") && path.size() > 1) {
+                Explorer.NavigationStep trigger = path.get(path.size() - 2);
+                from = trigger.fromScreen;
+                via = trigger.elementTapped + " → " + via;
+            }
+            Explorer.ScreenNode parent = graph.get(from);
+            if (parent != null) node.offerPath(parent, via);
+        }
+    }
+
+    private static String flags(Explorer.ElementInfo el) {
+        return (el.isClickable ? "c" : "") + (el.isTextField ? "f" : "")
+            + (el.isTextView ? "t" : "") + (el.interacted ? "i" : "");
+    }
+
+    static void write(BufferedWriter out, String... fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) out.write('\t');
+            out.write(escape(fields[i]));
+        }
+        out.newLine();
+    }
+
+    // \0 marks null, tabs, newlines and backslashes are escaped
+    private static String escape(String value) {
+        if (value == null) return "\\0";
+        return value.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    static String unescape(String value) {
+        if (value.equals("\\0")) return null;
+        if (value.indexOf('\\') < 0) return value;
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                sb.append(switch (next) {
+                    case 't' -> '\t';
+                    case 'n' -> '\n';
+                    case 'r' -> '\r';
+                    default -> next;
+                });
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,133 @@
+package com.test.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class GraphStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private final Ids ids = new Ids();
+
+    @Test
+    void roundTripKeepsScreensElementsEdgesAndPaths() {
+        Map<String, Explorer.ScreenNode> graph = new HashMap<>();
+        Explorer.ScreenNode home = node(graph, ids, "Home#1");
+        Explorer.ScreenNode login = node(graph, ids, "Login#2");
+        Explorer.ScreenNode settings = node(graph, ids, "Settings#3");
+        home.markRoot();
+        home.activity = ".MainActivity";
+        login.offerPath(home, "loginBtn");
+        settings.offerPath(home, "Menu → Settings");
+        home.addEdge("loginBtn", "Login#2");
+        home.addEdge("Menu → Settings", "Settings#3");
+        login.addEdge(Explorer.NavigationStep.BACK, "Home#1");
+
+        Explorer.ElementInfo button = element("loginBtn", "com.app:id/loginBtn", "android.widget.Button", 300);
+        button.text = "Log\tin\nnow \\ here";
+        button.isClickable = true;
+        button.interacted = true;
+        home.addElement(button);
+        Explorer.ElementInfo item = element("Settings", null, "android.widget.TextView", 10);
+        item.triggeredBy = "Menu";
+        home.addElement(item);
+
+        Fingerprint.Index screens = new Fingerprint.Index();
+        screens.register("Home#1", 0xfedcba9876543210L);
+        Set<String> visited = Set.of("Home#1|" + button.key(), "Home#1|menu|" + item.key());
+
+        GraphStore store = new GraphStore(dir.resolve("graph.tsv"));
+        store.save(graph, visited, screens);
+
+        Map<String, Explorer.ScreenNode> loaded = new HashMap<>();
+        Set<String> loadedVisited = new HashSet<>();
+        Fingerprint.Index loadedScreens = new Fingerprint.Index();
+        store.load(loaded, new Ids(), loadedVisited, loadedScreens);
+
+        assertThat(loaded).containsOnlyKeys("Home#1", "Login#2", "Settings#3");
+        assertThat(loadedVisited).isEqualTo(visited);
+        assertThat(loadedScreens.fingerprintOf("Home#1").simHash).isEqualTo(0xfedcba9876543210L);
+
+        Explorer.ScreenNode loadedHome = loaded.get("Home#1");
+        assertThat(loadedHome.activity).isEqualTo(".MainActivity");
+        assertThat(loadedHome.elements)
+            .extracting(e -> e.id, e -> e.text, e -> e.triggeredBy, e -> e.isClickable, e -> e.interacted, Explorer.ElementInfo::key)
+            .containsExactly(
+                tuple("loginBtn", "Log\tin\nnow \\ here", null, true, true, button.key()),
+                tuple("Settings", null, "Menu", false, false, item.key()));
+        assertThat(loadedHome.outgoingEdges())
+            .extracting(s -> s.elementTapped, s -> s.toScreen)
+            .containsExactlyInAnyOrder(tuple("loginBtn", "Login#2"), tuple("Menu → Settings", "Settings#3"));
+
+        assertThat(loadedHome.depth()).isZero();
+        assertThat(loaded.get("Login#2").depth()).isEqualTo(1);
+        assertThat(loaded.get("Settings#3").pathFromRoot())
+            .extracting(s -> s.fromScreen, s -> s.elementTapped, s -> s.toScreen)
+            .containsExactly(
+                tuple("Home#1", "Menu", "Home#1|menu"),
+                tuple("Home#1|menu", "Settings", "Settings#3"));
+    }
+
+    @Test
+    void unknownRecordsAreSkipped() throws IOException {
+        Path file = dir.resolve("graph.tsv");
+        Files.write(file, List.of(
+            "# explorer graph v2",
+            "S\tHome#1\t\t\\0",
+            "Z\tfrom a newer explorer",
+            "",
+            "V\tHome#1|loginBtn|android.widget.Button|1"));
+
+        Map<String, Explorer.ScreenNode> graph = new HashMap<>();
+        Set<String> visited = new HashSet<>();
+        new GraphStore(file).load(graph, ids, visited, new Fingerprint.Index());
+
+        assertThat(graph).containsOnlyKeys("Home#1");
+        assertThat(graph.get("Home#1").activity).isNull();
+        assertThat(visited).containsExactly("Home#1|loginBtn|android.widget.Button|1");
+    }
+
+    @Test
+    void saveWhileWorkersAddElements() throws Exception {
+        Map<String, Explorer.ScreenNode> graph = new HashMap<>();
+        Explorer.ScreenNode home = node(graph, ids, "Home#1");
+        home.markRoot();
+        GraphStore store = new GraphStore(dir.resolve("graph.tsv"));
+        Thread worker = new Thread(() -> {
+            for (int i = 0; i < 20_000; i++) {
+                home.addElement(element("item" + i, null, "android.widget.TextView", i));
+                home.addEdge("item" + i, "Home#1");
+            }
+        });
+        worker.start();
+        while (worker.isAlive()) store.save(graph, Set.of(), new Fingerprint.Index());
+        worker.join();
+        store.save(graph, Set.of(), new Fingerprint.Index());
+
+        Map<String, Explorer.ScreenNode> loaded = new HashMap<>();
+        store.load(loaded, new Ids(), new HashSet<>(), new Fingerprint.Index());
+        assertThat(loaded.get("Home#1").elements).hasSameSizeAs(home.elements);
+    }
+
+    static Explorer.ScreenNode node(Map<String, Explorer.ScreenNode> graph, Ids ids, String id) {
+        return graph.computeIfAbsent(id, k -> new Explorer.ScreenNode(k, ids));
+    }
+
+    static Explorer.ElementInfo element(String id, String resourceId, String className, int centerX) {
+        Explorer.ElementInfo el = new Explorer.ElementInfo();
+        el.id = id;
+        el.resourceId = resourceId;
+        el.className = className;
+        el.key = Explorer.ElementInfo.keyOf(el, centerX);
+        return el;
+    }
+}
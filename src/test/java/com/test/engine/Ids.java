@@ -0,0 +1,51 @@
+package com.test.engine;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+// String table of one exploration run, shared by its workers. Screen ids, element ids, keys
+// and class names repeat across thousands of screens; each distinct value is kept once and
+// numbered, so graph nodes can hold ints and shared String instances instead of copies.
+// Free-form text is never added. Only values a node stores are; lookups go through find().
+final class Ids {
+
+    private final ConcurrentHashMap<String, Integer> numbers = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[1024];
+    private int size;
+
+    // Number of the value, assigned on first sight; null maps to -1
+    int of(String value) {
+        if (value == null) return -1;
+        Integer known = numbers.get(value);
+        if (known != null) return known;
+        synchronized (this) {
+            known = numbers.get(value);
+            if (known != null) return known;
+            if (size == names.length) names = Arrays.copyOf(names, size * 2);
+            names[size] = value;
+            // Published after the slot is written so name() never sees a missing entry
+            numbers.put(value, size);
+            return size++;
+        }
+    }
+
+    // Number of a value already seen, -1 otherwise; lookups use this so they never grow the table
+    int find(String value) {
+        if (value == null) return -1;
+        Integer known = numbers.get(value);
+        return known != null ? known : -1;
+    }
+
+    String name(int id) {
+        return id < 0 ? null : names[id];
+    }
+
+    // The shared instance equal to the value
+    String intern(String value) {
+        return name(of(value));
+    }
+
+    synchronized int size() {
+        return size;
+    }
+}
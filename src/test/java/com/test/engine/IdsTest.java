@@ -0,0 +1,58 @@
+package com.test.engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdsTest {
+
+    private final Ids ids = new Ids();
+
+    @Test
+    void valuesAreNumberedOnFirstSight() {
+        assertThat(ids.of("Home")).isZero();
+        assertThat(ids.of("Cart")).isEqualTo(1);
+        assertThat(ids.of("Home")).isZero();
+        assertThat(ids.of(null)).isEqualTo(-1);
+
+        assertThat(ids.name(1)).isEqualTo("Cart");
+        assertThat(ids.name(-1)).isNull();
+        assertThat(ids.size()).isEqualTo(2);
+    }
+
+    @Test
+    void findNeverGrowsTheTable() {
+        ids.of("Home");
+
+        assertThat(ids.find("Home")).isZero();
+        assertThat(ids.find("Checkout")).isEqualTo(-1);
+        assertThat(ids.find(null)).isEqualTo(-1);
+        assertThat(ids.size()).isEqualTo(1);
+    }
+
+    @Test
+    void internHandsOutTheSharedInstance() {
+        String first = ids.intern(new String("com.app:id/removeBt"));
+        String copy = new String("com.app:id/removeBt");
+
+        assertThat(ids.intern(copy)).isSameAs(first).isNotSameAs(copy);
+        assertThat(ids.intern(null)).isNull();
+    }
+
+    @Test
+    void tableGrowsPastItsInitialSize() {
+        for (int i = 0; i < 3000; i++) ids.of("screen " + i);
+
+        assertThat(ids.size()).isEqualTo(3000);
+        assertThat(ids.name(2999)).isEqualTo("screen 2999");
+    }
+
+    @Test
+    void eachRunHasItsOwnTable() {
+        Ids other = new Ids();
+        ids.of("Home");
+
+        assertThat(other.find("Home")).isEqualTo(-1);
+        assertThat(other.of("Cart")).isZero();
+    }
+}
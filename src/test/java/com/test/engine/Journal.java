@@ -0,0 +1,219 @@
+package com.test.engine;
+
+import org.openqa.selenium.json.Json;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Structured exploration log. Recent events stay in a fixed-size ring (warnings and errors
+// in a ring of their own so chatter cannot push them out); every event also goes to a
+// background thread that appends it as a JSON line and prints it when at or above the
+// console level. Recording never waits on I/O: when the writer falls behind, events are
+// dropped from the sink and counted instead.
+public class Journal {
+
+    public enum Level { DEBUG, INFO, WARN, ERROR }
+
+    public enum Type { INFO, SCREEN, TAP, NAVIGATE, DISCOVER, CRASH, ERROR }
+
+    private static final Event STOP = new Event(Level.DEBUG, Type.INFO, null, null, "", -1);
+
+    private final Path file;
+    private final Level console;
+    private final int capacity;
+    private final int errorCapacity;
+    private final Deque<Event> recent = new ArrayDeque<>();
+    private final Deque<Event> problems = new ArrayDeque<>();
+    private final BlockingQueue<Event> sink = new ArrayBlockingQueue<>(10_000);
+    private final Map<Type, Long> counts = new EnumMap<>(Type.class);
+    private long errorCount;
+    private long dropped;
+    private Thread writer;
+    private boolean opened;
+
+    public Journal(Path file, int capacity, Level console) {
+        this.file = file;
+        this.capacity = capacity;
+        this.errorCapacity = Math.max(100, capacity / 4);
+        this.console = console;
+    }
+
+    // explorer.journal (empty for console only), explorer.journalSize, explorer.logLevel
+    public static Journal fromProperties() {
+        String path = Session.property("explorer.journal", "target/exploration/journal.jsonl");
+        return new Journal(path.isEmpty() ? null : Paths.get(path),
+            Integer.parseInt(Session.property("explorer.journalSize", "2000")),
+            Level.valueOf(Session.property("explorer.logLevel", "info").toUpperCase()));
+    }
+
+    public void record(Level level, Type type, String worker, String screen, String message, long durationMs) {
+        Event event = new Event(level, type, worker, screen, message, durationMs);
+        synchronized (this) {
+            counts.merge(type, 1L, Long::sum);
+            recent.addLast(event);
+            if (recent.size() > capacity) recent.removeFirst();
+            if (level.compareTo(Level.WARN) >= 0) {
+                errorCount++;
+                problems.addLast(event);
+                if (problems.size() > errorCapacity) problems.removeFirst();
+            }
+            if (writer == null) start();
+            // Offered under the lock so a writer that is stopping sees it and hands over
+            if (!sink.offer(event)) dropped++;
+        }
+    }
+
+    // Errors carried over from an earlier run (checkpoint); kept, but not logged again
+    public synchronized void restoreErrors(List<String> messages) {
+        for (String message : messages) {
+            errorCount++;
+            problems.addLast(new Event(Level.ERROR, Type.ERROR, null, null, message, -1));
+            if (problems.size() > errorCapacity) problems.removeFirst();
+        }
+    }
+
+    public synchronized List<Event> recent() {
+        return new ArrayList<>(recent);
+    }
+
+    // Messages of the warnings and errors still kept, oldest first
+    public synchronized List<String> errors() {
+        List<String> messages = new ArrayList<>();
+        for (Event e : problems) messages.add(e.message);
+        return messages;
+    }
+
+    public synchronized long errorCount() {
+        return errorCount;
+    }
+
+    public synchronized long count(Type type) {
+        return counts.getOrDefault(type, 0L);
+    }
+
+    public synchronized long dropped() {
+        return dropped;
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    // Waits for the writer to catch up, then stops it; later events start a new one once
+    // it has closed the file, so two writers never append at the same time
+    public void close() {
+        Thread running;
+        synchronized (this) {
+            running = writer;
+        }
+        if (running == null) return;
+        try {
+            sink.put(STOP);
+            running.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void start() {
+        writer = new Thread(this::drain, "journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    private void drain() {
+        BufferedWriter out = open();
+        Json json = new Json();
+        boolean stopped = false;
+        try {
+            while (true) {
+                Event event = sink.take();
+                if (event == STOP) {
+                    stopped = true;
+                    break;
+                }
+                if (event.level.compareTo(console) >= 0) System.out.println(event.consoleLine());
+                if (out != null) {
+                    out.write(json.toJson(event.toMap()).replace("\n", ""));
+                    out.newLine();
+                    if (sink.isEmpty()) out.flush();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            System.err.println("Journal stopped writing " + file + ": " + e.getMessage());
+        } finally {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException ignored) {}
+            }
+            synchronized (this) {
+                writer = null;
+                // Events recorded while stopping are queued behind STOP
+                if (stopped && !sink.isEmpty()) start();
+            }
+        }
+    }
+
+    private BufferedWriter open() {
+        if (file == null) return null;
+        try {
+            if (file.toAbsolutePath().getParent() != null) Files.createDirectories(file.toAbsolutePath().getParent());
+            // A new run starts a new file, a writer restarted after close() carries on
+            BufferedWriter out = opened
+                ? Files.newBufferedWriter(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND)
+                : Files.newBufferedWriter(file);
+            opened = true;
+            return out;
+        } catch (IOException e) {
+            System.err.println("Cannot write journal to " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    public static final class Event {
+        public final long at = System.currentTimeMillis();
+        public final Level level;
+        public final Type type;
+        public final String worker;
+        public final String screen;
+        public final String message;
+        public final long durationMs;
+
+        Event(Level level, Type type, String worker, String screen, String message, long durationMs) {
+            this.level = level;
+            this.type = type;
+            this.worker = worker;
+            this.screen = screen;
+            this.message = message;
+            this.durationMs = durationMs;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("at", at);
+            map.put("level", level.name());
+            map.put("type", type.name());
+            if (worker != null) map.put("worker", worker);
+            if (screen != null) map.put("screen", screen);
+            map.put("message", message);
+            if (durationMs >= 0) map.put("ms", durationMs);
+            return map;
+        }
+
+        String consoleLine() {
+            String line = worker != null ? "[" + worker + "] " + message : message;
+            return durationMs >= 0 ? line + " (" + durationMs + "ms)" : line;
+        }
+    }
+}
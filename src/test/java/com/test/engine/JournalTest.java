@@ -0,0 +1,78 @@
+package com.test.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void closeWritesEveryEventInOrder() throws IOException {
+        Path file = dir.resolve("journal.jsonl");
+        Journal journal = new Journal(file, 100, Journal.Level.ERROR);
+        for (int i = 0; i < 500; i++) {
+            journal.record(Journal.Level.INFO, Journal.Type.TAP, "w1", "Home", "tap " + i, i);
+        }
+        journal.close();
+
+        List<String> lines = Files.readAllLines(file);
+        assertThat(lines).hasSize(500);
+        assertThat(lines.get(0)).contains("\"message\": \"tap 0\"", "\"worker\": \"w1\"", "\"ms\": 0");
+        assertThat(lines.get(499)).contains("\"message\": \"tap 499\"");
+        assertThat(journal.count(Journal.Type.TAP)).isEqualTo(500);
+        assertThat(journal.dropped()).isZero();
+    }
+
+    @Test
+    void eventsAfterCloseAreAppended() throws IOException {
+        Path file = dir.resolve("journal.jsonl");
+        Journal journal = new Journal(file, 100, Journal.Level.ERROR);
+        journal.record(Journal.Level.INFO, Journal.Type.INFO, null, null, "first run", -1);
+        journal.close();
+
+        journal.record(Journal.Level.INFO, Journal.Type.INFO, null, null, "resumed", -1);
+        journal.close();
+
+        List<String> lines = Files.readAllLines(file);
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0)).contains("first run").doesNotContain("\"ms\"", "\"worker\"");
+        assertThat(lines.get(1)).contains("resumed");
+    }
+
+    @Test
+    void recentIsBoundedAndProblemsKeptApart() {
+        Journal journal = new Journal(null, 3, Journal.Level.ERROR);
+        journal.record(Journal.Level.WARN, Journal.Type.ERROR, null, "Cart", "slow checkout", -1);
+        for (int i = 0; i < 5; i++) {
+            journal.record(Journal.Level.DEBUG, Journal.Type.SCREEN, null, "Home", "screen " + i, -1);
+        }
+        journal.close();
+
+        assertThat(journal.recent()).extracting(e -> e.message).containsExactly("screen 2", "screen 3", "screen 4");
+        assertThat(journal.errors()).containsExactly("slow checkout");
+        assertThat(journal.errorCount()).isEqualTo(1);
+        assertThat(journal.file()).isNull();
+    }
+
+    @Test
+    void restoredErrorsAreKeptButNotLoggedAgain() {
+        Journal journal = new Journal(null, 3, Journal.Level.ERROR);
+        journal.restoreErrors(List.of("CRASH on screen: Cart", "Stuck on Login"));
+        journal.record(Journal.Level.ERROR, Journal.Type.CRASH, null, "Home", "CRASH on screen: Home", -1);
+        journal.close();
+
+        assertThat(journal.errors()).containsExactly("CRASH on screen: Cart", "Stuck on Login", "CRASH on screen: Home");
+        assertThat(journal.errorCount()).isEqualTo(3);
+        assertThat(journal.count(Journal.Type.CRASH)).isEqualTo(1);
+        assertThat(journal.recent()).hasSize(1);
+    }
+}
@@ -0,0 +1,67 @@
+package com.test.engine;
+
+import io.appium.java_client.AppiumBy;
+import org.openqa.selenium.By;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Compiles "type:value" locator strings into By objects once and caches them.
+// text: and desc: map to native UiAutomator / accessibility id lookups instead of
+// full-tree XPath, so the server answers them from its index.
+final class Locators {
+
+    private static final int MAX_CACHED = 2000;
+    private static final Map<String, By> cache = new ConcurrentHashMap<>();
+
+    private Locators() {}
+
+    static By compile(String locator) {
+        if (locator == null || locator.isEmpty()) {
+            throw new IllegalArgumentException("Empty locator");
+        }
+        By by = cache.get(locator);
+        if (by == null) {
+            by = translate(locator);
+            // Explorer feeds arbitrary on-screen text through here, keep the cache bounded
+            if (cache.size() >= MAX_CACHED) cache.clear();
+            cache.put(locator, by);
+        }
+        return by;
+    }
+
+    private static By translate(String locator) {
+        if (!locator.contains(":")) {
+            return By.id(locator); // default to ID
+        }
+        String[] parts = locator.split(":", 2);
+        String type = parts[0].toLowerCase();
+        String value = parts[1];
+
+        return switch (type) {
+            case "id" -> By.id(requireValue(locator, value));
+            case "xpath" -> By.xpath(requireValue(locator, value));
+            case "class" -> AppiumBy.className(requireValue(locator, value));
+            case "text" -> AppiumBy.androidUIAutomator("new UiSelector().text(" + quote(locator, value) + ")");
+            case "content-desc", "desc" -> AppiumBy.accessibilityId(requireValue(locator, value));
+            case "uiautomator" -> AppiumBy.androidUIAutomator(requireValue(locator, value));
+            default -> By.id(locator);
+        };
+    }
+
+    // Java string literal for a UiSelector argument; quotes and backslashes are escaped
+    static String quote(String locator, String value) {
+        requireValue(locator, value);
+        if (value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            throw new IllegalArgumentException("Line breaks are not supported in locator: " + locator);
+        }
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    private static String requireValue(String locator, String value) {
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Locator has no value: " + locator);
+        }
+        return value;
+    }
+}
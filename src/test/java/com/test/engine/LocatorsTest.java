@@ -0,0 +1,35 @@
+package com.test.engine;
+
+import io.appium.java_client.AppiumBy;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LocatorsTest {
+
+    @Test
+    void quoteEscapesQuotesAndBackslashes() {
+        assertThat(Locators.quote("text:Log in", "Log in")).isEqualTo("\"Log in\"");
+        assertThat(Locators.quote("t", "Say \"hi\"")).isEqualTo("\"Say \\\"hi\\\"\"");
+        assertThat(Locators.quote("t", "C:\\dir")).isEqualTo("\"C:\\\\dir\"");
+    }
+
+    @Test
+    void quoteRejectsLineBreaksAndEmptyValues() {
+        assertThatThrownBy(() -> Locators.quote("text:a\nb", "a\nb")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Locators.quote("text:a\rb", "a\rb")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Locators.quote("text:", "")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void compileTranslatesLocatorTypes() {
+        assertThat(Locators.compile("loginBtn")).isEqualTo(By.id("loginBtn"));
+        assertThat(Locators.compile("id:com.app:id/loginBtn")).isEqualTo(By.id("com.app:id/loginBtn"));
+        assertThat(Locators.compile("desc:Open menu")).isEqualTo(AppiumBy.accessibilityId("Open menu"));
+        assertThat(Locators.compile("text:Say \"hi\""))
+            .isEqualTo(AppiumBy.androidUIAutomator("new UiSelector().text(\"Say \\\"hi\\\"\")"));
+        assertThatThrownBy(() -> Locators.compile("")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,157 @@
+package com.test.engine;
+
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Latency histograms per driver command (and per locator strategy for finds).
+// Buckets are powers of two in milliseconds, so recording is a few atomic adds.
+public class Metrics {
+
+    private static final Metrics run = new Metrics();
+    private static final int BUCKETS = 20;
+
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+    // Totals for the whole JVM, across all sessions and scenarios
+    public static Metrics run() {
+        return run;
+    }
+
+    public void record(String key, long nanos) {
+        histograms.computeIfAbsent(key, k -> new Histogram()).add(nanos);
+    }
+
+    public void reset() {
+        histograms.clear();
+    }
+
+    public long count() {
+        long total = 0;
+        for (Histogram h : histograms.values()) total += h.count.sum();
+        return total;
+    }
+
+    // Driver round-trips only: per-strategy entries ("name[using]") and the settle/pause timers
+    // would count the same time twice
+    public long commands() {
+        long total = 0;
+        for (Map.Entry<String, Histogram> e : histograms.entrySet()) {
+            String key = e.getKey();
+            if (key.contains("[") || key.equals("settle") || key.equals("pause")) continue;
+            total += e.getValue().count.sum();
+        }
+        return total;
+    }
+
+    public long count(String key) {
+        Histogram h = histograms.get(key);
+        return h == null ? 0 : h.count.sum();
+    }
+
+    public String summary(String title) {
+        StringBuilder sb = new StringBuilder("\n=== " + title + " ===\n");
+        sb.append(String.format("%-36s %7s %10s %8s %8s %8s %8s%n", "command", "count", "total ms", "mean", "p50", "p95", "max"));
+        List<Map.Entry<String, Histogram>> rows = new ArrayList<>(histograms.entrySet());
+        rows.sort((a, b) -> Long.compare(b.getValue().totalMicros.sum(), a.getValue().totalMicros.sum()));
+        for (Map.Entry<String, Histogram> row : rows) {
+            Histogram h = row.getValue();
+            sb.append(String.format("%-36s %7d %10d %8d %8d %8d %8d%n", row.getKey(), h.count.sum(),
+                h.totalMicros.sum() / 1000, h.meanMillis(), h.percentile(0.5), h.percentile(0.95), h.max.get() / 1000));
+        }
+        return sb.toString();
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> out = new TreeMap<>();
+        for (Map.Entry<String, Histogram> e : histograms.entrySet()) {
+            Histogram h = e.getValue();
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("count", h.count.sum());
+            stats.put("totalMs", h.totalMicros.sum() / 1000);
+            stats.put("meanMs", h.meanMillis());
+            stats.put("p50Ms", h.percentile(0.5));
+            stats.put("p95Ms", h.percentile(0.95));
+            stats.put("maxMs", h.max.get() / 1000);
+            List<Long> buckets = new ArrayList<>();
+            for (int i = 0; i < BUCKETS; i++) buckets.add(h.buckets.get(i));
+            stats.put("bucketsLog2Ms", buckets);
+            out.put(e.getKey(), stats);
+        }
+        return out;
+    }
+
+    public void write(Path file) {
+        writeJson(file, toMap(), false);
+    }
+
+    // One JSON object per line, e.g. per scenario
+    public void append(Path file, String name) {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("name", name);
+        line.put("commands", toMap());
+        writeJson(file, line, true);
+    }
+
+    private static synchronized void writeJson(Path file, Map<String, Object> content, boolean append) {
+        try {
+            Files.createDirectories(file.getParent());
+            String json = new Json().toJson(content);
+            if (append) {
+                Files.writeString(file, json.replace("\n", "") + "\n",
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } else {
+                Files.writeString(file, json);
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to write " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static final class Histogram {
+        final LongAdder count = new LongAdder();
+        final LongAdder totalMicros = new LongAdder();
+        final LongAccumulator max = new LongAccumulator(Math::max, 0);
+        final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+        void add(long nanos) {
+            long micros = nanos / 1000;
+            count.increment();
+            totalMicros.add(micros);
+            max.accumulate(micros);
+            // bucket i holds [2^(i-1), 2^i) ms, bucket 0 is under 1 ms
+            long millis = micros / 1000;
+            int bucket = millis == 0 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(millis));
+            buckets.incrementAndGet(bucket);
+        }
+
+        long meanMillis() {
+            long n = count.sum();
+            return n == 0 ? 0 : totalMicros.sum() / n / 1000;
+        }
+
+        // Upper bound of the bucket holding the requested quantile; the last bucket is open-ended,
+        // its bound is the max
+        long percentile(double q) {
+            long n = count.sum();
+            long target = (long) Math.ceil(n * q);
+            long maxMillis = (max.get() + 999) / 1000;
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets.get(i);
+                if (seen >= target && seen > 0) {
+                    return i == BUCKETS - 1 ? maxMillis : Math.min(i == 0 ? 1 : 1L << i, maxMillis);
+                }
+            }
+            return maxMillis;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.test.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MetricsTest {
+
+    private static final long MS = 1_000_000;
+
+    private final Metrics metrics = new Metrics();
+
+    @Test
+    void percentilesAreBucketUpperBoundsCappedByTheMax() {
+        for (int i = 0; i < 9; i++) metrics.record("click", 3 * MS);
+        metrics.record("click", 100 * MS);
+
+        Map<String, Object> click = stats("click");
+        assertThat(click.get("count")).isEqualTo(10L);
+        assertThat(click.get("totalMs")).isEqualTo(127L);
+        assertThat(click.get("meanMs")).isEqualTo(12L);
+        // 3 ms lands in [2, 4), 100 ms in [64, 128) which the 100 ms maximum caps
+        assertThat(click.get("p50Ms")).isEqualTo(4L);
+        assertThat(click.get("p95Ms")).isEqualTo(100L);
+        assertThat(click.get("maxMs")).isEqualTo(100L);
+        assertThat(buckets(click).get(2)).isEqualTo(9L);
+        assertThat(buckets(click).get(7)).isEqualTo(1L);
+    }
+
+    @Test
+    void bucketEdges() {
+        metrics.record("fast", MS / 5);
+        metrics.record("edge", 4 * MS);
+        metrics.record("slow", 600_000 * MS);
+
+        // Under a millisecond is bucket 0, reported as 1 ms
+        assertThat(buckets(stats("fast")).get(0)).isEqualTo(1L);
+        assertThat(stats("fast").get("p50Ms")).isEqualTo(1L);
+        // A power of two opens its bucket: 4 ms is in [4, 8)
+        assertThat(buckets(stats("edge")).get(3)).isEqualTo(1L);
+        assertThat(stats("edge").get("p50Ms")).isEqualTo(4L);
+        // Anything beyond the last bucket is kept in it, the max stays exact
+        assertThat(buckets(stats("slow")).get(19)).isEqualTo(1L);
+        assertThat(stats("slow").get("p95Ms")).isEqualTo(600_000L);
+    }
+
+    @Test
+    void commandsLeaveOutStrategyEntriesAndTimers() {
+        metrics.record("findElement", MS);
+        metrics.record("findElement[id]", MS);
+        metrics.record("click", MS);
+        metrics.record("settle", 300 * MS);
+        metrics.record("pause", 1000 * MS);
+
+        assertThat(metrics.count()).isEqualTo(5);
+        assertThat(metrics.commands()).isEqualTo(2);
+        assertThat(metrics.count("findElement[id]")).isEqualTo(1);
+        assertThat(metrics.count("getPageSource")).isZero();
+        assertThat(metrics.summary("Commands")).contains("=== Commands ===", "findElement[id]");
+
+        metrics.reset();
+        assertThat(metrics.count()).isZero();
+        assertThat(metrics.toMap()).isEmpty();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> stats(String key) {
+        return (Map<String, Object>) metrics.toMap().get(key);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Long> buckets(Map<String, Object> stats) {
+        return (List<Long>) stats.get("bucketsLog2Ms");
+    }
+}
@@ -0,0 +1,71 @@
+package com.test.engine;
+
+import java.util.*;
+
+// Cheapest known route between two screens, over recorded taps and back presses.
+// Plain Dijkstra on the screen graph: a tap or a back costs one, a menu edge
+// ("trigger → item") costs two because it is two taps.
+final class Navigator {
+
+    private Navigator() {}
+
+    // Steps from `from` to `to`, empty when already there, null when no route is known
+    static List<Explorer.NavigationStep> route(Map<String, Explorer.ScreenNode> graph, String from, String to) {
+        if (from == null || to == null) return null;
+        if (from.equals(to)) return new ArrayList<>();
+
+        Map<String, Explorer.NavigationStep> via = new HashMap<>();
+        search(graph, from, to, via);
+        if (!via.containsKey(to)) return null;
+
+        LinkedList<Explorer.NavigationStep> route = new LinkedList<>();
+        for (String at = to; !at.equals(from); at = via.get(at).fromScreen) {
+            route.addFirst(via.get(at));
+        }
+        return route;
+    }
+
+    // Taps from `from` to every screen a route is known to, `from` itself included at 0
+    static Map<String, Integer> distances(Map<String, Explorer.ScreenNode> graph, String from) {
+        if (from == null) return Map.of();
+        return search(graph, from, null, null);
+    }
+
+    // Dijkstra from `from`, stopping early once `to` is settled (null: visit everything).
+    // Records the last step into each screen in `via` when given.
+    private static Map<String, Integer> search(Map<String, Explorer.ScreenNode> graph, String from, String to,
+                                               Map<String, Explorer.NavigationStep> via) {
+        Map<String, Integer> dist = new HashMap<>();
+        PriorityQueue<Map.Entry<String, Integer>> open = new PriorityQueue<>(Map.Entry.comparingByValue());
+        dist.put(from, 0);
+        open.add(Map.entry(from, 0));
+        while (!open.isEmpty()) {
+            Map.Entry<String, Integer> head = open.poll();
+            String screen = head.getKey();
+            if (head.getValue() > dist.get(screen)) continue;
+            if (screen.equals(to)) break;
+            Explorer.ScreenNode node = graph.get(screen);
+            if (node == null) continue;
+            // Straight off the node's edge arrays, a step object is only made for improvements
+            synchronized (node) {
+                for (int i = 0; i < node.edgeCount(); i++) {
+                    String target = node.edgeTo(i);
+                    if (target == null || target.equals(screen)) continue;
+                    String tapped = node.edgeVia(i);
+                    int d = head.getValue() + cost(tapped);
+                    Integer known = dist.get(target);
+                    if (known == null || d < known) {
+                        dist.put(target, d);
+                        if (via != null) via.put(target, new Explorer.NavigationStep(screen, tapped, target));
+                        open.add(Map.entry(target, d));
+                    }
+                }
+            }
+        }
+        return dist;
+    }
+
+    static int cost(String elementTapped) {
+        return elementTapped.contains(" → ") ? 2 : 1;
+    }
+}
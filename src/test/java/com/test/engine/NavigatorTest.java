@@ -0,0 +1,61 @@
+package com.test.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.assertj.core.api.Assertions.tuple;
+
+class NavigatorTest {
+
+    // Home -> Catalog -> Product -> Cart takes three taps, the menu gets to Cart in two
+    private final Map<String, Explorer.ScreenNode> graph = new HashMap<>();
+    private final Ids ids = new Ids();
+
+    NavigatorTest() {
+        GraphStoreTest.node(graph, ids, "Home").addEdge("catalogBtn", "Catalog");
+        GraphStoreTest.node(graph, ids, "Home").addEdge("Menu → Cart", "Cart");
+        GraphStoreTest.node(graph, ids, "Home").addEdge("refresh", "Home");
+        GraphStoreTest.node(graph, ids, "Catalog").addEdge("item1", "Product");
+        GraphStoreTest.node(graph, ids, "Catalog").addEdge(Explorer.NavigationStep.BACK, "Home");
+        GraphStoreTest.node(graph, ids, "Product").addEdge("addToCart", "Cart");
+        GraphStoreTest.node(graph, ids, "Cart");
+        GraphStoreTest.node(graph, ids, "Login");
+    }
+
+    @Test
+    void routeTakesTheCheapestSteps() {
+        assertThat(Navigator.route(graph, "Home", "Cart"))
+            .extracting(s -> s.fromScreen, s -> s.elementTapped, s -> s.toScreen)
+            .containsExactly(tuple("Home", "Menu → Cart", "Cart"));
+        assertThat(Navigator.route(graph, "Catalog", "Cart"))
+            .extracting(s -> s.elementTapped)
+            .containsExactly("item1", "addToCart");
+    }
+
+    @Test
+    void routeToItselfIsEmptyAndUnknownRoutesAreNull() {
+        assertThat(Navigator.route(graph, "Home", "Home")).isEmpty();
+        assertThat(Navigator.route(graph, "Home", "Login")).isNull();
+        assertThat(Navigator.route(graph, "Cart", "Home")).isNull();
+        assertThat(Navigator.route(graph, null, "Home")).isNull();
+    }
+
+    @Test
+    void distancesCountTapsToEveryReachableScreen() {
+        assertThat(Navigator.distances(graph, "Catalog")).containsOnly(
+            entry("Catalog", 0), entry("Home", 1), entry("Product", 1), entry("Cart", 2));
+        assertThat(Navigator.distances(graph, "Home")).containsOnly(
+            entry("Home", 0), entry("Catalog", 1), entry("Product", 2), entry("Cart", 2));
+        assertThat(Navigator.distances(graph, null)).isEmpty();
+    }
+
+    @Test
+    void menuTapsCostTwo() {
+        assertThat(Navigator.cost("Menu → Cart")).isEqualTo(2);
+        assertThat(Navigator.cost("catalogBtn")).isEqualTo(1);
+    }
+}
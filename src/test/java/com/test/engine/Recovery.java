@@ -0,0 +1,67 @@
+package com.test.engine;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Crash bookkeeping for the Explorer, shared by all workers.
+// Relaunches straight into a recorded activity with "mobile: startActivity" so a crash
+// costs one launch instead of a replay from root; activities that refuse to start
+// (not exported, no such activity) are remembered and never tried again, other failures
+// only after MAX_LAUNCH_FAILURES in a row. Also counts crashes per tap, so
+// a tap that crashed twice is known to be deterministic and not repeated.
+public class Recovery {
+
+    public static final int DETERMINISTIC = 2;
+    // Timeouts and UiAutomator2 hiccups are usually transient, give the activity a few chances
+    static final int MAX_LAUNCH_FAILURES = 3;
+    // What "am start" reports for an activity that can never be started from outside
+    private static final String[] REFUSED = {"not exported", "Permission Denial", "does not exist",
+        "Unable to resolve Intent", "ActivityNotFoundException"};
+
+    private final Map<String, Boolean> launchable = new ConcurrentHashMap<>();
+    private final Map<String, Integer> launchFailures = new ConcurrentHashMap<>();
+    private final Map<String, Integer> crashes = new ConcurrentHashMap<>();
+
+    // Starts the activity on the given session; false when it cannot be launched directly
+    public boolean launch(Session app, String appPackage, String activity) {
+        if (activity == null || activity.isEmpty() || Boolean.FALSE.equals(launchable.get(activity))) {
+            return false;
+        }
+        try {
+            // am start accepts both ".ShortName" and fully qualified activity names after the package
+            app.driver().executeScript("mobile: startActivity",
+                Map.of("intent", appPackage + "/" + activity, "wait", true));
+            launchable.put(activity, true);
+            launchFailures.remove(activity);
+            return true;
+        } catch (Exception e) {
+            if (refused(e) || launchFailures.merge(activity, 1, Integer::sum) >= MAX_LAUNCH_FAILURES) {
+                launchable.put(activity, false);
+            }
+            return false;
+        }
+    }
+
+    static boolean refused(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            String message = String.valueOf(t.getMessage());
+            for (String refusal : REFUSED) {
+                if (message.contains(refusal)) return true;
+            }
+        }
+        return false;
+    }
+
+    // Number of crashes recorded for this tap, including this one
+    public int recordCrash(String key) {
+        return crashes.merge(key, 1, Integer::sum);
+    }
+
+    public boolean isDeterministic(String key) {
+        return crashes.getOrDefault(key, 0) >= DETERMINISTIC;
+    }
+
+    public Map<String, Integer> crashes() {
+        return crashes;
+    }
+}
@@ -0,0 +1,41 @@
+package com.test.engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecoveryTest {
+
+    private final Recovery recovery = new Recovery();
+
+    @Test
+    void refusalsAreFoundAnywhereInTheCauseChain() {
+        Exception notExported = new RuntimeException("startActivity failed",
+            new IllegalStateException("java.lang.SecurityException: Permission Denial: starting Intent"));
+
+        assertThat(Recovery.refused(notExported)).isTrue();
+        assertThat(Recovery.refused(new RuntimeException("Error: Activity class {x/.Hidden} does not exist.")))
+            .isTrue();
+        assertThat(Recovery.refused(new RuntimeException("timed out", new RuntimeException()))).isFalse();
+        assertThat(Recovery.refused(new RuntimeException((String) null))).isFalse();
+    }
+
+    @Test
+    void tapIsDeterministicFromTheSecondCrash() {
+        assertThat(recovery.recordCrash("Cart|checkoutBt")).isEqualTo(1);
+        assertThat(recovery.isDeterministic("Cart|checkoutBt")).isFalse();
+
+        assertThat(recovery.recordCrash("Cart|checkoutBt")).isEqualTo(Recovery.DETERMINISTIC);
+
+        assertThat(recovery.isDeterministic("Cart|checkoutBt")).isTrue();
+        assertThat(recovery.isDeterministic("Cart|removeBt")).isFalse();
+        assertThat(recovery.crashes()).containsEntry("Cart|checkoutBt", 2);
+    }
+
+    @Test
+    void noActivityMeansNoDirectLaunch() {
+        // Never reaches the driver
+        assertThat(recovery.launch(null, SnapshotTest.PACKAGE, null)).isFalse();
+        assertThat(recovery.launch(null, SnapshotTest.PACKAGE, "")).isFalse();
+    }
+}
@@ -0,0 +1,120 @@
+package com.test.engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScreenNodeTest {
+
+    private final Ids ids = new Ids();
+    private final Explorer.ScreenNode cart = new Explorer.ScreenNode("Cart", ids);
+
+    @Test
+    void keyLeavesOutTheVerticalPositionAndBucketsTheHorizontal() {
+        Explorer.ElementInfo left = GraphStoreTest.element("Remove", "com.app:id/removeBt", "android.widget.Button", 100);
+        Explorer.ElementInfo nearby = GraphStoreTest.element("Remove", "com.app:id/removeBt", "android.widget.Button", 200);
+        Explorer.ElementInfo right = GraphStoreTest.element("Remove", "com.app:id/removeBt", "android.widget.Button", 900);
+        Explorer.ElementInfo noResourceId = GraphStoreTest.element("Remove", null, "android.widget.Button", 100);
+
+        assertThat(left.key()).isEqualTo("com.app:id/removeBt|android.widget.Button|0");
+        assertThat(nearby.key()).isEqualTo(left.key());
+        assertThat(right.key()).isEqualTo("com.app:id/removeBt|android.widget.Button|3");
+        assertThat(noResourceId.key()).isEqualTo("Remove|android.widget.Button|0");
+    }
+
+    @Test
+    void elementsWithoutBoundsGetTheUnknownBucket() {
+        Explorer.ElementInfo loaded = new Explorer.ElementInfo();
+        loaded.id = "Remove";
+        loaded.className = "android.widget.Button";
+
+        assertThat(loaded.key()).isEqualTo("Remove|android.widget.Button|?");
+    }
+
+    @Test
+    void addElementKeepsOnePerKey() {
+        Explorer.ElementInfo first = GraphStoreTest.element("Remove", "com.app:id/removeBt", "android.widget.Button", 100);
+        Explorer.ElementInfo scrolled = GraphStoreTest.element("Remove", "com.app:id/removeBt", "android.widget.Button", 120);
+        Explorer.ElementInfo other = GraphStoreTest.element("Remove", "com.app:id/removeBt", "android.widget.Button", 900);
+
+        assertThat(cart.addElement(first)).isTrue();
+        assertThat(cart.hasElement(scrolled)).isTrue();
+        assertThat(cart.addElement(scrolled)).isFalse();
+        assertThat(cart.hasElement(other)).isFalse();
+        assertThat(cart.addElement(other)).isTrue();
+
+        assertThat(cart.elements).containsExactly(first, other);
+        assertThat(cart.element("Remove")).isSameAs(first);
+        assertThat(cart.element("Checkout")).isNull();
+    }
+
+    @Test
+    void frontierItemsSharingADisplayIdStayApart() {
+        Explorer.ElementInfo left = GraphStoreTest.element("Remove", "com.app:id/removeBt", "android.widget.Button", 100);
+        Explorer.ElementInfo right = GraphStoreTest.element("Remove", "com.app:id/removeBt", "android.widget.Button", 900);
+        Explorer.ElementInfo menu = GraphStoreTest.element("More", "com.app:id/menuIV", "android.widget.ImageView", 1000);
+
+        Frontier.Item a = new Frontier.Item("Cart", left, null, 1);
+        Frontier.Item b = new Frontier.Item("Cart", right, null, 1);
+        Frontier.Item viaMenu = new Frontier.Item("Cart", left, menu, 1);
+
+        assertThat(a.key).isNotEqualTo(b.key);
+        assertThat(a.key).isEqualTo("Cart|" + left.key());
+        assertThat(viaMenu.key).isEqualTo("Cart|menu|" + left.key());
+        assertThat(viaMenu).hasToString("More → Remove");
+    }
+
+    @Test
+    void edgesAreKeptOncePerTapAndTarget() {
+        assertThat(cart.addEdge("checkoutBt", "Checkout")).isTrue();
+        assertThat(cart.addEdge("checkoutBt", "Checkout")).isFalse();
+        assertThat(cart.addEdge("checkoutBt", "Login")).isTrue();
+        for (int i = 0; i < 10; i++) cart.addEdge("item" + i, "Product");
+
+        assertThat(cart.edgeCount()).isEqualTo(12);
+        assertThat(cart.outgoingEdges().get(1))
+            .extracting(s -> s.fromScreen, s -> s.elementTapped, s -> s.toScreen)
+            .containsExactly("Cart", "checkoutBt", "Login");
+
+        cart.removeEdges("checkoutBt");
+        assertThat(cart.hasEdge("checkoutBt")).isFalse();
+        assertThat(cart.edgeCount()).isEqualTo(10);
+        assertThat(cart.edgeVia(0)).isEqualTo("item0");
+        assertThat(cart.edgeTo(0)).isEqualTo("Product");
+    }
+
+    @Test
+    void askingAboutUnknownTapsLeavesTheTableAlone() {
+        int known = ids.size();
+
+        assertThat(cart.hasEdge("neverSeen")).isFalse();
+        cart.removeEdges("neverSeen");
+
+        assertThat(ids.size()).isEqualTo(known);
+    }
+
+    @Test
+    void pathFromRootExpandsMenuItems() {
+        Explorer.ScreenNode home = new Explorer.ScreenNode("Home", ids);
+        Explorer.ScreenNode catalog = new Explorer.ScreenNode("Catalog", ids);
+        Explorer.ScreenNode about = new Explorer.ScreenNode("About", ids);
+        home.markRoot();
+
+        assertThat(about.pathFromRoot()).isNull();
+        assertThat(about.depth()).isEqualTo(-1);
+        assertThat(catalog.offerPath(home, "catalogBtn")).isTrue();
+        assertThat(about.offerPath(catalog, "More → About")).isTrue();
+        // Not shorter than the route it already has
+        assertThat(about.offerPath(catalog, "aboutBtn")).isFalse();
+
+        assertThat(home.pathFromRoot()).isEmpty();
+        assertThat(about.depth()).isEqualTo(2);
+        assertThat(about.pathFromRoot())
+            .extracting(s -> s.fromScreen + " -" + s.elementTapped + "-> " + s.toScreen)
+            .containsExactly("Home -catalogBtn-> Catalog", "Catalog -More-> Catalog|menu",
+                "Catalog|menu -About-> About");
+
+        assertThat(about.offerPath(home, "aboutBtn")).isTrue();
+        assertThat(about.pathFromRoot()).extracting(s -> s.elementTapped).containsExactly("aboutBtn");
+    }
+}
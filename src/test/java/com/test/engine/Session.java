@@ -1,50 +1,147 @@
 package com.test.engine;
 
+import io.appium.java_client.MobileCommand;
 import io.appium.java_client.android.AndroidDriver;
 import io.appium.java_client.android.options.UiAutomator2Options;
 import org.openqa.selenium.By;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.StaleElementReferenceException;
 import org.openqa.selenium.WebElement;
+import org.openqa.selenium.remote.CommandPayload;
+import org.openqa.selenium.remote.DriverCommand;
+import org.openqa.selenium.remote.Response;
+import org.openqa.selenium.support.ui.ExpectedCondition;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.WebDriverWait;
 
 import java.io.InputStream;
 import java.net.URL;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 public class Session {
-    private static Session instance;
+    private static final Properties props = loadProperties();
+    private static final BlockingQueue<Device> freeDevices = new LinkedBlockingQueue<>(loadDevices());
+    private static final ThreadLocal<Session> sessions = new ThreadLocal<>();
+    private static final Set<Session> open = ConcurrentHashMap.newKeySet();
+    // Strategy that found each key last time, polled first on the next lookup
+    private static final Map<String, String> winningStrategy = new ConcurrentHashMap<>();
+    // Commands after which the screen may have changed, so the last snapshot is no longer current.
+    // Cached handles survive them: a tap that stays on the screen keeps its handles, and one that
+    // leaves it is caught by the next structure hash or activity change, or by a stale handle
+    private static final Set<String> NAVIGATING = Set.of(DriverCommand.CLICK_ELEMENT, DriverCommand.ACTIONS,
+        DriverCommand.GO_BACK, MobileCommand.PRESS_KEY_CODE);
+    // Commands that restart or switch the app, after which no handle can still be valid
+    private static final Set<String> RELAUNCHING = Set.of("activateApp", "terminateApp", "startActivity");
+
+    private final Device device;
+    private boolean leased = true;
     private AndroidDriver driver;
     private WebDriverWait waiter;
-    private final Properties props;
+    private Duration waitTimeout;
+    private Sync sync;
+    private String appPackage;
+    private Dimension viewport;
+    private final Metrics metrics = new Metrics();
+    private CrashWatcher crashes = new CrashWatcher(null, null, "");
+
+    // Per-screen WebElement handles, dropped whenever the screen structure changes
+    private final Map<String, WebElement> handles = new HashMap<>();
+    private boolean cacheHandles = Boolean.parseBoolean(props.getProperty("elementCache", "false"));
+    private long screenStructure;
+    private String lastActivity;
+    // Last snapshot taken, reused by exists() while it is younger than settlePoll and
+    // nothing has been done since that could have changed the screen
+    private Snapshot lastSnapshot;
+    private long snapshotTtl;
+    private int handleHits, handleMisses, handleStale;
 
-    private Session() {
-        props = new Properties();
-        try (InputStream in = getClass().getClassLoader().getResourceAsStream("test.properties")) {
-            if (in != null) props.load(in);
+    Session(Device device) {
+        this.device = device;
+    }
+
+    // Each worker thread gets its own session and device, leased from the pool on first use
+    public static Session current() {
+        Session session = sessions.get();
+        if (session == null || !session.leased) {
+            session = new Session(lease());
+            sessions.set(session);
+        }
+        return session;
+    }
+
+    private static Device lease() {
+        int wait = Integer.parseInt(props.getProperty("wait", "15"));
+        try {
+            Device device = freeDevices.poll(wait, TimeUnit.SECONDS);
+            if (device == null) {
+                throw new RuntimeException("No free device for " + Thread.currentThread().getName()
+                    + " - add entries to 'devices' in test.properties or lower the parallelism");
+            }
+            return device;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a device", e);
+        }
+    }
+
+    private static Properties loadProperties() {
+        Properties p = new Properties();
+        try (InputStream in = Session.class.getClassLoader().getResourceAsStream("test.properties")) {
+            if (in != null) p.load(in);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
+        return p;
     }
 
-    public static Session current() {
-        if (instance == null) instance = new Session();
-        return instance;
+    private static List<Device> loadDevices() {
+        // "devices" is a comma separated udid list; fall back to the single "device" entry
+        String list = props.getProperty("devices", props.getProperty("device", ""));
+        int basePort = Integer.parseInt(props.getProperty("systemPort", "8200"));
+        List<Device> devices = new ArrayList<>();
+        for (String udid : list.split(",")) {
+            if (!udid.isBlank()) {
+                devices.add(new Device(udid.trim(), basePort + devices.size()));
+            }
+        }
+        return devices;
     }
 
     public void open() {
-        if (driver != null) return;
+        if (driver != null) {
+            if (isAlive()) return;
+            // Session died between scenarios (server restart, newCommandTimeout) - start a fresh one
+            discardDriver();
+        }
         try {
             var opts = new UiAutomator2Options()
-                .setDeviceName(props.getProperty("device"))
+                .setDeviceName(device.udid)
+                .setUdid(device.udid)
+                .setSystemPort(device.systemPort)
                 .setPlatformVersion(props.getProperty("version"))
                 .setAutoGrantPermissions(true)
                 .setNewCommandTimeout(Duration.ofSeconds(300))
                 .setAppWaitDuration(Duration.ofSeconds(90))
                 .setUiautomator2ServerLaunchTimeout(Duration.ofSeconds(90))
                 .setUiautomator2ServerInstallTimeout(Duration.ofSeconds(90))
-                .setAdbExecTimeout(Duration.ofSeconds(60));
+                .setAdbExecTimeout(Duration.ofSeconds(60))
+                // No window animations means the hierarchy settles as soon as the app is done
+                .setDisableWindowAnimation(true);
 
             // Use APK path if provided, otherwise use package/activity
             String appPath = props.getProperty("app");
@@ -57,72 +154,415 @@ public class Session {
                 opts.setAppActivity(props.getProperty("activity"));
             }
 
-            driver = new AndroidDriver(new URL(props.getProperty("appium")), opts);
+            driver = new AndroidDriver(new URL(props.getProperty("appium")), opts) {
+                // Every driver and element command funnels through here
+                @Override
+                protected Response execute(CommandPayload payload) {
+                    long start = System.nanoTime();
+                    try {
+                        Response response = super.execute(payload);
+                        afterCommand(payload.getName(), response);
+                        return response;
+                    } finally {
+                        record(payload, System.nanoTime() - start);
+                    }
+                }
+            };
             int wait = Integer.parseInt(props.getProperty("wait", "15"));
-            waiter = new WebDriverWait(driver, Duration.ofSeconds(wait));
+            waitTimeout = Duration.ofSeconds(wait);
+            waiter = new WebDriverWait(driver, waitTimeout);
+            snapshotTtl = Long.parseLong(props.getProperty("settlePoll", "250"));
+            sync = new Sync(this::snapshot,
+                Duration.ofMillis(Long.parseLong(props.getProperty("settle", "5000"))),
+                Duration.ofMillis(snapshotTtl));
+            appPackage = props.getProperty("package");
+            if (appPackage == null || appPackage.isEmpty()) appPackage = driver.getCurrentPackage();
+            if (Boolean.parseBoolean(props.getProperty("logcat", "true"))) {
+                crashes.stop();
+                crashes = new CrashWatcher(props.getProperty("adb", "adb"), device.udid, appPackage);
+                crashes.start();
+            }
+            open.add(this);
         } catch (Exception e) {
             throw new RuntimeException("Cannot start session", e);
         }
     }
 
-    public void close() {
-        if (driver != null) {
+    public boolean isAlive() {
+        try {
+            return driver != null && driver.getSessionId() != null && driver.getCurrentPackage() != null;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    // End of scenario: keep the driver warm when reuse is on, otherwise quit it
+    public void release() {
+        if (!leased) {
+            // Already quit from another thread (closeAll), only this worker's slot is left
+            if (sessions.get() == this) sessions.remove();
+            return;
+        }
+        if (!Boolean.parseBoolean(property("reuse", "false"))) {
+            close();
+            return;
+        }
+        try {
+            reset();
+        } catch (Exception e) {
+            // Could not reset - drop the session so the next scenario starts clean
+            close();
+        }
+    }
+
+    // Brings the app back to a fresh launch state without a new UiAutomator2 session
+    public void reset() {
+        invalidateHandles();
+        String strategy = props.getProperty("reset", "terminate");
+        switch (strategy) {
+            case "none" -> { }
+            case "clear" -> {
+                driver.executeScript("mobile: clearApp", Map.of("appId", appPackage));
+                driver.activateApp(appPackage);
+            }
+            case "terminate" -> {
+                driver.terminateApp(appPackage);
+                driver.activateApp(appPackage);
+            }
+            default -> throw new IllegalArgumentException("Unknown reset strategy: " + strategy);
+        }
+        // Our own restart is not a crash
+        crashes.clear();
+    }
+
+    // Quits every session still open, for the end of the run when reuse kept them alive.
+    // Runs on the hook thread, so it cannot clear the workers' ThreadLocal slots; a worker
+    // drops its quit session in release() or gets a fresh one from current().
+    public static void closeAll() {
+        for (Session session : open) {
+            session.quit();
+        }
+    }
+
+    private void discardDriver() {
+        try {
             driver.quit();
+        } catch (Exception ignored) {
+        } finally {
+            open.remove(this);
+            driver = null;
+            waiter = null;
+            sync = null;
+            viewport = null;
+            crashes.stop();
+            invalidateHandles();
+        }
+    }
+
+    // Quits the driver, hands the device back and clears the calling thread's slot
+    public void close() {
+        quit();
+        if (sessions.get() == this) sessions.remove();
+    }
+
+    // Quits the driver and hands the device back so another worker can lease it
+    private synchronized void quit() {
+        try {
+            if (driver != null) driver.quit();
+        } finally {
+            open.remove(this);
             driver = null;
             waiter = null;
+            sync = null;
+            viewport = null;
+            crashes.stop();
+            invalidateHandles();
+            if (leased) {
+                leased = false;
+                freeDevices.offer(device);
+            }
         }
     }
 
     public WebElement find(String locator) {
-        return waiter.until(ExpectedConditions.presenceOfElementLocated(parse(locator)));
+        return handle(locator, ExpectedConditions::presenceOfElementLocated);
     }
 
     public List<WebElement> findAll(String locator) {
         return driver.findElements(parse(locator));
     }
 
+    // Answered from a fresh snapshot when there is one. Otherwise id and accessibility-id
+    // locators are one indexed findElements call, cheaper than fetching the whole hierarchy;
+    // text and class locators still take a snapshot, which later checks can reuse.
     public boolean exists(String locator) {
+        Snapshot fresh = lastSnapshot;
+        if (fresh != null && System.currentTimeMillis() - fresh.takenAt() <= snapshotTtl
+                && Snapshot.supports(locator)) {
+            return fresh.has(locator);
+        }
+        String type = strategyOf(locator);
+        if (type.equals("text") || type.equals("class")) {
+            return snapshot().has(locator);
+        }
         return !findAll(locator).isEmpty();
     }
 
+    // Waits until one snapshot satisfies every locator; re-polls only while a check fails
+    public Snapshot expect(String... locators) {
+        List<String> all = List.of(locators);
+        return expect(String.join(", ", all), snap -> snap.hasAll(all));
+    }
+
+    public Snapshot expect(String description, Predicate<Snapshot> check) {
+        Snapshot snapshot = sync.until(check, waitTimeout);
+        if (snapshot == null) {
+            throw new AssertionError("Expected " + description + " within " + waitTimeout.toSeconds() + "s");
+        }
+        return snapshot;
+    }
+
     public void tap(String locator) {
-        waiter.until(ExpectedConditions.elementToBeClickable(parse(locator))).click();
+        withHandle(locator, ExpectedConditions::elementToBeClickable, WebElement::click);
     }
 
     public void type(String locator, String text) {
-        WebElement el = waiter.until(ExpectedConditions.visibilityOfElementLocated(parse(locator)));
-        el.clear();
-        el.sendKeys(text);
+        withHandle(locator, ExpectedConditions::visibilityOfElementLocated, el -> {
+            el.clear();
+            el.sendKeys(text);
+        });
     }
 
     public String read(String locator) {
-        return waiter.until(ExpectedConditions.visibilityOfElementLocated(parse(locator))).getText();
+        // A handle already cached is one getText call, cheaper than a snapshot
+        if (Snapshot.supports(locator) && !(cacheHandles && handles.containsKey(locator))) {
+            return expect(locator).find(locator).text;
+        }
+        String[] text = new String[1];
+        withHandle(locator, ExpectedConditions::visibilityOfElementLocated, el -> text[0] = el.getText());
+        return text[0];
+    }
+
+    // Tries every locator in each poll cycle under one shared timeout and returns the first
+    // displayed and enabled hit
+    public WebElement findFirst(String key, List<String> locators) {
+        List<String> ordered = new ArrayList<>(locators);
+        String preferred = winningStrategy.get(key);
+        if (preferred != null) {
+            ordered.sort(Comparator.comparing(l -> !strategyOf(l).equals(preferred)));
+        }
+        return waiter.until(d -> {
+            for (String locator : ordered) {
+                for (WebElement el : d.findElements(parse(locator))) {
+                    // The caller clicks it, so it has to be enabled too; a candidate that went
+                    // stale between find and check just loses this round
+                    try {
+                        if (el.isDisplayed() && el.isEnabled()) {
+                            winningStrategy.put(key, strategyOf(locator));
+                            return el;
+                        }
+                    } catch (StaleElementReferenceException e) {
+                        // next candidate
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    public void tapFirst(String key, List<String> locators) {
+        try {
+            findFirst(key, locators).click();
+        } catch (StaleElementReferenceException e) {
+            findFirst(key, locators).click();
+        }
+    }
+
+    private static String strategyOf(String locator) {
+        return locator.contains(":") ? locator.substring(0, locator.indexOf(':')).toLowerCase() : "id";
+    }
+
+    // Starts a gesture batch; nothing is sent until perform()
+    public Gestures gestures() {
+        return new Gestures(this);
+    }
+
+    // Window size does not change during a session, so it is read once
+    public Dimension viewport() {
+        if (viewport == null) viewport = driver.manage().window().getSize();
+        return viewport;
+    }
+
+    public void back() {
+        driver.navigate().back();
+    }
+
+    public Session cacheElements(boolean enabled) {
+        this.cacheHandles = enabled;
+        if (!enabled) invalidateHandles();
+        return this;
+    }
+
+    public void invalidateHandles() {
+        handles.clear();
+        lastSnapshot = null;
+    }
+
+    public int handleHits() { return handleHits; }
+
+    public int handleMisses() { return handleMisses; }
+
+    public int handleStale() { return handleStale; }
+
+    // Runs the action on the cached handle without re-checking it first. A handle that went
+    // stale is re-resolved once, transparently, and only a use that skipped the lookup is a hit
+    private void withHandle(String locator, Function<By, ExpectedCondition<WebElement>> condition,
+                            Consumer<WebElement> action) {
+        WebElement cached = cacheHandles ? handles.get(locator) : null;
+        if (cached != null) {
+            try {
+                action.accept(cached);
+                handleHits++;
+                return;
+            } catch (StaleElementReferenceException e) {
+                handleStale++;
+                handles.remove(locator);
+            }
+        }
+        action.accept(lookup(locator, condition));
+    }
+
+    private WebElement handle(String locator, Function<By, ExpectedCondition<WebElement>> condition) {
+        WebElement cached = cacheHandles ? handles.get(locator) : null;
+        if (cached != null) {
+            handleHits++;
+            return cached;
+        }
+        return lookup(locator, condition);
+    }
+
+    // The waited lookup, remembered for the next use when caching is on
+    private WebElement lookup(String locator, Function<By, ExpectedCondition<WebElement>> condition) {
+        WebElement el = waiter.until(condition.apply(parse(locator)));
+        if (cacheHandles) {
+            handleMisses++;
+            handles.put(locator, el);
+        }
+        return el;
+    }
+
+    // A new activity is a new screen even when no snapshot has been taken yet; a relaunched
+    // app has none of its old elements left. Anything else that may have moved only outdates
+    // the last snapshot.
+    private void afterCommand(String command, Response response) {
+        if (RELAUNCHING.contains(command)) {
+            invalidateHandles();
+        } else if (NAVIGATING.contains(command)) {
+            lastSnapshot = null;
+        } else if (MobileCommand.CURRENT_ACTIVITY.equals(command)) {
+            String activity = response != null ? String.valueOf(response.getValue()) : null;
+            if (!Objects.equals(activity, lastActivity)) {
+                lastActivity = activity;
+                invalidateHandles();
+            }
+        }
+    }
+
+    // Every snapshot doubles as a navigation check: a new layout means the cached handles belong to another screen
+    private void observe(Snapshot snapshot) {
+        long structure = snapshot.structureHash();
+        if (structure != screenStructure) {
+            screenStructure = structure;
+            invalidateHandles();
+        }
+    }
+
+    // One getPageSource() round-trip, parsed into an in-memory tree
+    public Snapshot snapshot() {
+        Snapshot snapshot = Snapshot.parse(driver.getPageSource());
+        observe(snapshot);
+        lastSnapshot = snapshot;
+        return snapshot;
+    }
+
+    // Waits until the UI stops changing (bounded by the 'settle' timeout) instead of a fixed sleep
+    public Snapshot settle() {
+        long start = System.nanoTime();
+        try {
+            return sync.settle();
+        } finally {
+            record("settle", System.nanoTime() - start);
+        }
+    }
+
+    public Sync sync() {
+        return sync;
     }
 
     public void pause(int seconds) {
+        long start = System.nanoTime();
         try { Thread.sleep(seconds * 1000L); } catch (InterruptedException ignored) {}
+        record("pause", System.nanoTime() - start);
     }
 
-    private By parse(String locator) {
-        if (!locator.contains(":")) {
-            return By.id(locator); // default to ID
+    // Latencies for this session since the last reset, e.g. the current scenario
+    public Metrics metrics() {
+        return metrics;
+    }
+
+    private void record(CommandPayload payload, long nanos) {
+        String command = payload.getName();
+        record(command, nanos);
+        Object using = payload.getParameters().get("using");
+        if (using != null) {
+            record(command + "[" + using + "]", nanos);
         }
-        String[] parts = locator.split(":", 2);
-        String type = parts[0].toLowerCase();
-        String value = parts[1];
+    }
+
+    private void record(String key, long nanos) {
+        metrics.record(key, nanos);
+        Metrics.run().record(key, nanos);
+    }
+
+    private By parse(String locator) {
+        return Locators.compile(locator);
+    }
 
-        return switch (type) {
-            case "id" -> By.id(value);
-            case "xpath" -> By.xpath(value);
-            case "class" -> By.className(value);
-            case "text" -> By.xpath("//*[@text='" + value + "']");
-            case "content-desc", "desc" -> By.xpath("//*[@content-desc='" + value + "']");
-            default -> By.id(locator);
-        };
+    // Crashes, ANRs and app exits seen in logcat; not running() when adb is unavailable
+    public CrashWatcher crashes() {
+        return crashes;
+    }
+
+    public String appPackage() {
+        return appPackage;
     }
 
     public AndroidDriver driver() {
         return driver;
     }
+
+    public Device device() {
+        return device;
+    }
+
+    // System property first, so -Dkey=value overrides test.properties
+    public static String property(String key, String fallback) {
+        return System.getProperty(key, props.getProperty(key, fallback));
+    }
+
+    public static final class Device {
+        public final String udid;
+        public final int systemPort;
+
+        Device(String udid, int systemPort) {
+            this.udid = udid;
+            this.systemPort = systemPort;
+        }
+
+        @Override
+        public String toString() {
+            return udid + ":" + systemPort;
+        }
+    }
 }
 
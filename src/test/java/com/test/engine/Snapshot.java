@@ -0,0 +1,271 @@
+package com.test.engine;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.SAXParserFactory;
+import java.io.StringReader;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Immutable in-memory copy of the UI hierarchy, parsed from a single getPageSource() call.
+// Lets callers query elements, bounds and flags without further device round-trips.
+public final class Snapshot {
+
+    private static final Pattern BOUNDS = Pattern.compile("\\[(-?\\d+),(-?\\d+)\\]\\[(-?\\d+),(-?\\d+)\\]");
+
+    private final Node root;
+    private final List<Node> nodes;
+    private final long takenAt;
+    private long contentHash;
+    private long structureHash;
+
+    private Snapshot(Node root, List<Node> nodes) {
+        this.root = root;
+        this.nodes = Collections.unmodifiableList(nodes);
+        this.takenAt = System.currentTimeMillis();
+    }
+
+    public static Snapshot parse(String xml) {
+        Builder builder = new Builder();
+        try {
+            SAXParserFactory factory = SAXParserFactory.newInstance();
+            factory.setNamespaceAware(false);
+            factory.setValidating(false);
+            factory.newSAXParser().parse(new InputSource(new StringReader(xml)), builder);
+        } catch (Exception e) {
+            throw new RuntimeException("Cannot parse page source", e);
+        }
+        return new Snapshot(builder.root, builder.all);
+    }
+
+    public Node root() { return root; }
+
+    // All nodes in document (pre-)order, root excluded
+    public List<Node> nodes() { return nodes; }
+
+    public long takenAt() { return takenAt; }
+
+    // Hash of everything that visibly changes while the UI is moving: layout, bounds, text and state
+    public long contentHash() {
+        if (contentHash == 0) {
+            long h = 17;
+            for (Node n : nodes) {
+                h = 31 * h + n.depth;
+                h = 31 * h + Objects.hashCode(n.className);
+                h = 31 * h + Objects.hashCode(n.resourceId);
+                h = 31 * h + Objects.hashCode(n.text);
+                h = 31 * h + Objects.hashCode(n.contentDesc);
+                h = 31 * h + n.left;
+                h = 31 * h + n.top;
+                h = 31 * h + n.right;
+                h = 31 * h + n.bottom;
+                h = 31 * h + Objects.hashCode(n.attr("checked"));
+                h = 31 * h + Objects.hashCode(n.attr("selected"));
+                h = 31 * h + (n.focused ? 1 : 0);
+            }
+            contentHash = h == 0 ? 1 : h;
+        }
+        return contentHash;
+    }
+
+    // Hash of the layout skeleton only (depth, class, resource-id); stable while text and positions change
+    public long structureHash() {
+        if (structureHash == 0) {
+            long h = 17;
+            for (Node n : nodes) {
+                h = 31 * h + n.depth;
+                h = 31 * h + Objects.hashCode(n.className);
+                h = 31 * h + Objects.hashCode(n.resourceId);
+            }
+            structureHash = h == 0 ? 1 : h;
+        }
+        return structureHash;
+    }
+
+    public List<Node> clickables() {
+        List<Node> result = new ArrayList<>();
+        for (Node n : nodes) {
+            if (n.clickable) result.add(n);
+        }
+        return result;
+    }
+
+    public List<Node> ofClass(String className) {
+        List<Node> result = new ArrayList<>();
+        for (Node n : nodes) {
+            if (className.equals(n.className)) result.add(n);
+        }
+        return result;
+    }
+
+    // Session locator syntax evaluated in memory; xpath: and uiautomator: are not supported here
+    public static boolean supports(String locator) {
+        String type = locator.contains(":") ? locator.substring(0, locator.indexOf(':')).toLowerCase() : "id";
+        return !type.equals("xpath") && !type.equals("uiautomator");
+    }
+
+    public List<Node> findAll(String locator) {
+        if (!supports(locator)) {
+            throw new IllegalArgumentException("Locator cannot be evaluated on a snapshot: " + locator);
+        }
+        List<Node> result = new ArrayList<>();
+        for (Node n : nodes) {
+            if (n.matches(locator)) result.add(n);
+        }
+        return result;
+    }
+
+    // First visible match, or null
+    public Node find(String locator) {
+        for (Node n : findAll(locator)) {
+            if (n.isVisible()) return n;
+        }
+        return null;
+    }
+
+    public boolean has(String locator) {
+        return find(locator) != null;
+    }
+
+    public boolean hasAll(List<String> locators) {
+        for (String locator : locators) {
+            if (!has(locator)) return false;
+        }
+        return true;
+    }
+
+    // Any visible node whose text contains the fragment
+    public boolean containsText(String fragment) {
+        for (Node n : nodes) {
+            if (n.text != null && n.text.contains(fragment) && n.isVisible()) return true;
+        }
+        return false;
+    }
+
+    public static final class Node {
+        public final String tag;
+        public final String className;
+        public final String resourceId;
+        public final String text;
+        public final String contentDesc;
+        public final String packageName;
+        public final boolean clickable;
+        public final boolean enabled;
+        public final boolean displayed;
+        public final boolean scrollable;
+        public final boolean focused;
+        public final boolean password;
+        public final int left, top, right, bottom;
+        public final int depth;
+        public final Node parent;
+        private final Map<String, String> attributes;
+        private final List<Node> children = new ArrayList<>();
+
+        Node(String tag, Map<String, String> attributes, Node parent, int depth) {
+            this.tag = tag;
+            this.attributes = Collections.unmodifiableMap(attributes);
+            this.parent = parent;
+            this.depth = depth;
+            this.className = attributes.getOrDefault("class", tag);
+            this.resourceId = attributes.get("resource-id");
+            this.text = attributes.get("text");
+            this.contentDesc = attributes.get("content-desc");
+            this.packageName = attributes.get("package");
+            this.clickable = "true".equals(attributes.get("clickable"));
+            this.enabled = !"false".equals(attributes.get("enabled"));
+            // UiAutomator2 reports "displayed"; older sources omit it, so fall back to bounds only
+            this.displayed = !"false".equals(attributes.get("displayed"));
+            this.scrollable = "true".equals(attributes.get("scrollable"));
+            this.focused = "true".equals(attributes.get("focused"));
+            this.password = "true".equals(attributes.get("password"));
+
+            int[] b = {0, 0, 0, 0};
+            String raw = attributes.get("bounds");
+            if (raw != null) {
+                Matcher m = BOUNDS.matcher(raw);
+                if (m.matches()) {
+                    for (int i = 0; i < 4; i++) b[i] = Integer.parseInt(m.group(i + 1));
+                }
+            }
+            this.left = b[0];
+            this.top = b[1];
+            this.right = b[2];
+            this.bottom = b[3];
+        }
+
+        public String attr(String name) { return attributes.get(name); }
+
+        public Map<String, String> attributes() { return attributes; }
+
+        public List<Node> children() { return Collections.unmodifiableList(children); }
+
+        public int width() { return right - left; }
+
+        public int height() { return bottom - top; }
+
+        public int centerX() { return left + width() / 2; }
+
+        public int centerY() { return top + height() / 2; }
+
+        boolean matches(String locator) {
+            String type = "id";
+            String value = locator;
+            int colon = locator.indexOf(':');
+            if (colon >= 0) {
+                String prefix = locator.substring(0, colon).toLowerCase();
+                if (List.of("id", "text", "class", "content-desc", "desc").contains(prefix)) {
+                    type = prefix;
+                    value = locator.substring(colon + 1);
+                }
+            }
+            return switch (type) {
+                case "text" -> value.equals(text);
+                case "class" -> value.equals(className);
+                case "content-desc", "desc" -> value.equals(contentDesc);
+                // Short ids match "<package>:id/<value>" the same way By.id does on UiAutomator2
+                default -> resourceId != null && (resourceId.equals(value) || resourceId.endsWith("/" + value));
+            };
+        }
+
+        public boolean isVisible() {
+            return displayed && width() > 0 && height() > 0;
+        }
+
+        @Override
+        public String toString() {
+            return className + (resourceId != null && !resourceId.isEmpty() ? "#" + resourceId : "")
+                + "[" + left + "," + top + "][" + right + "," + bottom + "]";
+        }
+    }
+
+    private static final class Builder extends DefaultHandler {
+        private final List<Node> all = new ArrayList<>();
+        private final Deque<Node> stack = new ArrayDeque<>();
+        private Node root;
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes atts) {
+            Map<String, String> attrs = new HashMap<>();
+            for (int i = 0; i < atts.getLength(); i++) {
+                attrs.put(atts.getQName(i), atts.getValue(i));
+            }
+            Node parent = stack.peek();
+            Node node = new Node(qName, attrs, parent, stack.size());
+            if (parent == null) {
+                root = node;
+            } else {
+                parent.children.add(node);
+                all.add(node);
+            }
+            stack.push(node);
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            stack.pop();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.test.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SnapshotTest {
+
+    static final String PACKAGE = "com.saucelabs.mydemoapp.android";
+
+    // Products screen: a title, a sort button and one row per product name
+    static String screen(String title, String... products) {
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?><hierarchy rotation=\"0\">"
+            + "<android.widget.FrameLayout class=\"android.widget.FrameLayout\" package=\"" + PACKAGE + "\""
+            + " bounds=\"[0,0][1080,1920]\" displayed=\"true\">"
+            + "<android.widget.TextView class=\"android.widget.TextView\" resource-id=\"" + PACKAGE + ":id/productTV\""
+            + " text=\"" + title + "\" bounds=\"[0,0][800,100]\" displayed=\"true\"/>"
+            + "<android.widget.ImageView class=\"android.widget.ImageView\" resource-id=\"" + PACKAGE + ":id/sortIV\""
+            + " content-desc=\"Shows current sorting order\" clickable=\"true\" bounds=\"[900,0][1080,100]\"/>");
+        for (int i = 0; i < products.length; i++) {
+            xml.append("<android.widget.TextView class=\"android.widget.TextView\" resource-id=\"")
+                .append(PACKAGE).append(":id/titleTV\" text=\"").append(products[i])
+                .append("\" clickable=\"true\" bounds=\"[0,").append(100 + i * 200).append("][1080,")
+                .append(300 + i * 200).append("]\"/>");
+        }
+        return xml.append("</android.widget.FrameLayout></hierarchy>").toString();
+    }
+
+    @Test
+    void parsesNodesInDocumentOrderWithTheirAttributes() {
+        Snapshot snapshot = Snapshot.parse(screen("Products", "Sauce Labs Backpack", "Sauce Labs Bike Light"));
+
+        assertThat(snapshot.root().tag).isEqualTo("hierarchy");
+        assertThat(snapshot.nodes()).extracting(n -> n.className).containsExactly(
+            "android.widget.FrameLayout", "android.widget.TextView", "android.widget.ImageView",
+            "android.widget.TextView", "android.widget.TextView");
+
+        Snapshot.Node sort = snapshot.nodes().get(2);
+        assertThat(sort.resourceId).isEqualTo(PACKAGE + ":id/sortIV");
+        assertThat(sort.contentDesc).isEqualTo("Shows current sorting order");
+        assertThat(sort.clickable).isTrue();
+        assertThat(sort.enabled).isTrue();
+        assertThat(sort.depth).isEqualTo(2);
+        assertThat(sort.parent).isSameAs(snapshot.nodes().get(0));
+        assertThat(sort.parent.packageName).isEqualTo(PACKAGE);
+        assertThat(new int[] {sort.left, sort.top, sort.right, sort.bottom}).containsExactly(900, 0, 1080, 100);
+        assertThat(sort.centerX()).isEqualTo(990);
+        assertThat(sort.attr("content-desc")).isEqualTo(sort.contentDesc);
+
+        assertThat(snapshot.clickables()).hasSize(3);
+        assertThat(snapshot.ofClass("android.widget.TextView")).hasSize(3);
+        assertThat(snapshot.nodes().get(0).children()).hasSize(4);
+    }
+
+    @Test
+    void structureHashIgnoresTextButContentHashDoesNot() {
+        Snapshot one = Snapshot.parse(screen("Products", "Sauce Labs Backpack"));
+        Snapshot same = Snapshot.parse(screen("Products", "Sauce Labs Backpack"));
+        Snapshot renamed = Snapshot.parse(screen("Products", "Sauce Labs Onesie"));
+        Snapshot longer = Snapshot.parse(screen("Products", "Sauce Labs Backpack", "Sauce Labs Onesie"));
+
+        assertThat(same.contentHash()).isEqualTo(one.contentHash());
+        assertThat(same.structureHash()).isEqualTo(one.structureHash());
+        assertThat(renamed.structureHash()).isEqualTo(one.structureHash());
+        assertThat(renamed.contentHash()).isNotEqualTo(one.contentHash());
+        assertThat(longer.structureHash()).isNotEqualTo(one.structureHash());
+    }
+
+    @Test
+    void locatorsAreEvaluatedInMemory() {
+        Snapshot snapshot = Snapshot.parse(screen("Products", "Sauce Labs Backpack", "Sauce Labs Bike Light"));
+
+        assertThat(snapshot.has("sortIV")).isTrue();
+        assertThat(snapshot.has("id:" + PACKAGE + ":id/sortIV")).isTrue();
+        assertThat(snapshot.has("IV")).isFalse();
+        assertThat(snapshot.has("text:Sauce Labs Backpack")).isTrue();
+        assertThat(snapshot.has("text:Sauce Labs")).isFalse();
+        assertThat(snapshot.has("desc:Shows current sorting order")).isTrue();
+        assertThat(snapshot.has("content-desc:Shows current sorting order")).isTrue();
+        assertThat(snapshot.findAll("class:android.widget.TextView")).hasSize(3);
+        assertThat(snapshot.findAll("titleTV")).extracting(n -> n.text)
+            .containsExactly("Sauce Labs Backpack", "Sauce Labs Bike Light");
+        assertThat(snapshot.hasAll(List.of("sortIV", "text:Products"))).isTrue();
+        assertThat(snapshot.hasAll(List.of("sortIV", "text:Checkout"))).isFalse();
+        assertThat(snapshot.containsText("Bike")).isTrue();
+    }
+
+    @Test
+    void hiddenNodesDoNotCount() {
+        Snapshot snapshot = Snapshot.parse("<hierarchy>"
+            + "<node class=\"android.widget.Button\" resource-id=\"a:id/gone\" text=\"Gone\" displayed=\"false\" bounds=\"[0,0][10,10]\"/>"
+            + "<node class=\"android.widget.Button\" resource-id=\"a:id/flat\" text=\"Flat\" bounds=\"[0,0][10,0]\"/>"
+            + "<node class=\"android.widget.Button\" resource-id=\"a:id/flat\" text=\"Shown\" bounds=\"[0,10][10,20]\"/>"
+            + "</hierarchy>");
+
+        assertThat(snapshot.has("gone")).isFalse();
+        assertThat(snapshot.findAll("gone")).hasSize(1);
+        assertThat(snapshot.find("flat").text).isEqualTo("Shown");
+        assertThat(snapshot.containsText("Gone")).isFalse();
+    }
+
+    @Test
+    void xpathAndUiAutomatorNeedTheDriver() {
+        assertThat(Snapshot.supports("loginBtn")).isTrue();
+        assertThat(Snapshot.supports("text:Log in")).isTrue();
+        assertThat(Snapshot.supports("xpath://android.widget.Button")).isFalse();
+        assertThat(Snapshot.supports("uiautomator:new UiSelector()")).isFalse();
+        assertThatThrownBy(() -> Snapshot.parse(screen("Products")).findAll("xpath://*"))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void malformedSourceIsReported() {
+        assertThatThrownBy(() -> Snapshot.parse("<hierarchy><node"))
+            .isInstanceOf(RuntimeException.class)
+            .hasMessage("Cannot parse page source");
+    }
+}
@@ -0,0 +1,102 @@
+package com.test.engine;
+
+import java.util.function.Function;
+
+// What the device is showing, read once and reused until something can have changed it.
+// The Explorer invalidates after each of its actions and hands in the snapshot settle()
+// ended on, so the screen after a tap usually costs no extra call at all. Pending crash
+// watcher events also count as a change.
+public class StateOracle {
+
+    private final Session app;
+    private final String appPackage;
+
+    private Snapshot snapshot;
+    private String screenId;
+    private String foregroundPackage;
+    private String activity;
+    private long hits, reads;
+
+    public StateOracle(Session app, String appPackage) {
+        this.app = app;
+        this.appPackage = appPackage;
+    }
+
+    public void invalidate() {
+        snapshot = null;
+        screenId = null;
+        foregroundPackage = null;
+        activity = null;
+    }
+
+    // True while the last observed state is still valid, so reading it costs no device call
+    public boolean isCached() {
+        checkEvents();
+        return snapshot != null;
+    }
+
+    // A snapshot taken anyway (settle, scrolling) becomes the cached state; null just invalidates
+    public void observe(Snapshot taken) {
+        invalidate();
+        snapshot = taken;
+    }
+
+    public Snapshot snapshot() {
+        checkEvents();
+        if (snapshot != null) {
+            hits++;
+            return snapshot;
+        }
+        reads++;
+        snapshot = app.snapshot();
+        return snapshot;
+    }
+
+    // Fingerprint id of the current snapshot, computed once per state
+    public String screenId(Function<Snapshot, String> identify) {
+        Snapshot current = snapshot();
+        if (screenId == null) screenId = identify.apply(current);
+        return screenId;
+    }
+
+    // Package of the foreground window. Taken from the hierarchy when it is the app's own;
+    // anything else (dialog, launcher, empty tree) is confirmed with the driver
+    public String foregroundPackage() {
+        checkEvents();
+        if (foregroundPackage != null) {
+            hits++;
+            return foregroundPackage;
+        }
+        Snapshot current = snapshot();
+        String pkg = current.nodes().isEmpty() ? null : current.nodes().get(0).packageName;
+        if (!appPackage.equals(pkg)) {
+            reads++;
+            pkg = app.driver().getCurrentPackage();
+        }
+        foregroundPackage = pkg;
+        return pkg;
+    }
+
+    public String activity() {
+        checkEvents();
+        if (activity != null) {
+            hits++;
+            return activity;
+        }
+        reads++;
+        activity = app.driver().currentActivity();
+        return activity;
+    }
+
+    public long hits() {
+        return hits;
+    }
+
+    public long reads() {
+        return reads;
+    }
+
+    private void checkEvents() {
+        if (app.crashes().hasEvents()) invalidate();
+    }
+}
@@ -0,0 +1,63 @@
+package com.test.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StateOracleTest {
+
+    // No driver: every read below has to be served from the cached state
+    private final Session app = new Session(new Session.Device("emulator-5554", 8200));
+    private final StateOracle state = new StateOracle(app, SnapshotTest.PACKAGE);
+    private final Snapshot products = Snapshot.parse(SnapshotTest.screen("Products", "Sauce Labs Backpack"));
+
+    @Test
+    void observedSnapshotIsReusedUntilInvalidated() {
+        assertThat(state.isCached()).isFalse();
+
+        state.observe(products);
+
+        assertThat(state.isCached()).isTrue();
+        assertThat(state.snapshot()).isSameAs(products);
+        assertThat(state.snapshot()).isSameAs(products);
+        assertThat(state.hits()).isEqualTo(2);
+        assertThat(state.reads()).isZero();
+
+        state.invalidate();
+        assertThat(state.isCached()).isFalse();
+    }
+
+    @Test
+    void screenIdIsWorkedOutOncePerState() {
+        AtomicInteger identified = new AtomicInteger();
+        state.observe(products);
+
+        assertThat(state.screenId(s -> "Products#" + identified.incrementAndGet())).isEqualTo("Products#1");
+        assertThat(state.screenId(s -> "Products#" + identified.incrementAndGet())).isEqualTo("Products#1");
+
+        state.observe(products);
+        assertThat(state.screenId(s -> "Products#" + identified.incrementAndGet())).isEqualTo("Products#2");
+    }
+
+    @Test
+    void foregroundPackageOfTheAppComesFromTheHierarchy() {
+        state.observe(products);
+
+        assertThat(state.foregroundPackage()).isEqualTo(SnapshotTest.PACKAGE);
+        assertThat(state.foregroundPackage()).isEqualTo(SnapshotTest.PACKAGE);
+        assertThat(state.reads()).isZero();
+    }
+
+    @Test
+    void watcherEventsInvalidateTheState() {
+        state.observe(products);
+
+        app.crashes().accept("12:00:01.000 600", "550", "ActivityManager",
+            "START u0 {act=android.intent.action.MAIN cmp=com.android.launcher3/.Launcher} from uid 1000");
+
+        assertThat(app.crashes().hasEvents()).isTrue();
+        assertThat(state.isCached()).isFalse();
+    }
+}
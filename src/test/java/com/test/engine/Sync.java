@@ -0,0 +1,75 @@
+package com.test.engine;
+
+import java.time.Duration;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+// Waits for the UI to stop changing instead of sleeping for a fixed time.
+// The screen counts as settled once two snapshots taken one poll interval apart hash the same;
+// the timeout is an upper bound, after which the caller simply carries on.
+public class Sync {
+
+    // Takes one snapshot, normally Session.snapshot()
+    private final Supplier<Snapshot> source;
+    private final Duration timeout;
+    private final Duration poll;
+
+    Sync(Supplier<Snapshot> source, Duration timeout, Duration poll) {
+        this.source = source;
+        this.timeout = timeout;
+        this.poll = poll;
+    }
+
+    public Snapshot settle() {
+        return settle(timeout);
+    }
+
+    // Returns the last snapshot seen, or null if the hierarchy could not be read
+    public Snapshot settle(Duration max) {
+        long deadline = System.currentTimeMillis() + max.toMillis();
+        Snapshot previous = take();
+        while (previous != null) {
+            if (!sleepUntil(deadline)) return previous;
+            Snapshot next = take();
+            if (next == null || next.contentHash() == previous.contentHash()) {
+                return next != null ? next : previous;
+            }
+            previous = next;
+        }
+        return null;
+    }
+
+    public Snapshot until(Predicate<Snapshot> condition) {
+        return until(condition, timeout);
+    }
+
+    // Polls snapshots until one matches, returns null if none did within max
+    public Snapshot until(Predicate<Snapshot> condition, Duration max) {
+        long deadline = System.currentTimeMillis() + max.toMillis();
+        while (true) {
+            Snapshot snapshot = take();
+            if (snapshot != null && condition.test(snapshot)) return snapshot;
+            if (!sleepUntil(deadline)) return null;
+        }
+    }
+
+    private Snapshot take() {
+        try {
+            return source.get();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private boolean sleepUntil(long deadline) {
+        long remaining = deadline - System.currentTimeMillis();
+        if (remaining <= 0) return false;
+        try {
+            Thread.sleep(Math.min(poll.toMillis(), remaining));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.test.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SyncTest {
+
+    private static final Snapshot LOADING = Snapshot.parse(SnapshotTest.screen("Loading"));
+    private static final Snapshot HALF = Snapshot.parse(SnapshotTest.screen("Products", "Sauce Labs Backpack"));
+    private static final Snapshot DONE = Snapshot.parse(
+        SnapshotTest.screen("Products", "Sauce Labs Backpack", "Sauce Labs Bike Light"));
+
+    @Test
+    void settleReturnsOnceTwoSnapshotsMatch() {
+        Screens screens = new Screens(LOADING, HALF, DONE, DONE, DONE);
+        Sync sync = new Sync(screens, Duration.ofSeconds(5), Duration.ofMillis(1));
+
+        assertThat(sync.settle()).isSameAs(DONE);
+        assertThat(screens.taken).isEqualTo(4);
+    }
+
+    @Test
+    void settleGivesUpAtTheTimeoutWithTheLastSnapshot() {
+        Sync sync = new Sync(() -> Snapshot.parse(SnapshotTest.screen("Tick " + System.nanoTime())),
+            Duration.ofSeconds(5), Duration.ofMillis(5));
+
+        long start = System.currentTimeMillis();
+        assertThat(sync.settle(Duration.ofMillis(50))).isNotNull();
+        assertThat(System.currentTimeMillis() - start).isLessThan(1000);
+    }
+
+    @Test
+    void unreadableHierarchyIsNull() {
+        Sync sync = new Sync(() -> {
+            throw new IllegalStateException("session gone");
+        }, Duration.ofMillis(50), Duration.ofMillis(5));
+
+        assertThat(sync.settle()).isNull();
+        assertThat(sync.until(s -> true)).isNull();
+    }
+
+    @Test
+    void untilPollsUntilTheConditionHolds() {
+        Screens screens = new Screens(LOADING, HALF, DONE);
+        Sync sync = new Sync(screens, Duration.ofSeconds(5), Duration.ofMillis(1));
+
+        assertThat(sync.until(s -> s.hasAll(List.of("text:Sauce Labs Bike Light", "sortIV")))).isSameAs(DONE);
+        assertThat(screens.taken).isEqualTo(3);
+    }
+
+    @Test
+    void untilReturnsNullWhenNothingMatchedInTime() {
+        Sync sync = new Sync(new Screens(LOADING), Duration.ofSeconds(5), Duration.ofMillis(5));
+
+        assertThat(sync.until(s -> s.has("text:Checkout"), Duration.ofMillis(30))).isNull();
+    }
+
+    // Hands out the given snapshots in order, then keeps repeating the last one
+    private static final class Screens implements Supplier<Snapshot> {
+        private final Deque<Snapshot> left;
+        private Snapshot last;
+        int taken;
+
+        Screens(Snapshot... snapshots) {
+            left = new ArrayDeque<>(List.of(snapshots));
+        }
+
+        @Override
+        public Snapshot get() {
+            taken++;
+            if (!left.isEmpty()) last = left.poll();
+            return last;
+        }
+    }
+}
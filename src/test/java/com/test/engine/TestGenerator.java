@@ -9,6 +9,7 @@ public class TestGenerator {
     private final Map<String, Explorer.ScreenNode> screenMap;
     private final String outputDir;
     private final List<String> generatedScenarios = new ArrayList<>();
+    private final Set<String> usedScreenNames = new HashSet<>();
 
     public TestGenerator(Map<String, Explorer.ScreenNode> screenMap) {
         this.screenMap = screenMap;
@@ -44,6 +45,7 @@ public class TestGenerator {
         
         for (Map.Entry<String, Explorer.ScreenNode> entry : screenMap.entrySet()) {
             Explorer.ScreenNode screen = entry.getValue();
+            List<Explorer.NavigationStep> pathFromRoot = screen.pathFromRoot();
             String screenName = deriveScreenName(entry.getKey(), screenCount);
             
             if (screen.elements.isEmpty()) continue;
@@ -84,11 +86,11 @@ public class TestGenerator {
                 java.append("    }\n\n");
             }
             
-            if (screen.pathFromRoot != null && !screen.pathFromRoot.isEmpty()) {
+            if (pathFromRoot != null && !pathFromRoot.isEmpty()) {
                 java.append("    public void navigateHere() {\n");
-                for (Explorer.NavigationStep step : screen.pathFromRoot) {
+                for (Explorer.NavigationStep step : pathFromRoot) {
                     java.append("        app.tap(\"id:").append(step.elementTapped).append("\");\n");
-                    java.append("        app.pause(1);\n");
+                    java.append("        app.settle();\n");
                 }
                 java.append("    }\n\n");
             }
@@ -109,6 +111,10 @@ public class TestGenerator {
     }
 
     private String deriveScreenName(String screenId, int index) {
+        // Drop the structural fingerprint suffix, it is not meant for humans
+        if (screenId.contains("#")) {
+            screenId = screenId.substring(0, screenId.lastIndexOf('#'));
+        }
         String name;
         if (screenId.contains(".")) {
             String[] parts = screenId.split("\\.");
@@ -126,7 +132,12 @@ public class TestGenerator {
         if (!name.endsWith("Screen")) {
             name += "Screen";
         }
-        return name;
+        // Different layouts can share a title, keep class names unique
+        String unique = name;
+        for (int i = 2; !usedScreenNames.add(unique); i++) {
+            unique = name.substring(0, name.length() - "Screen".length()) + i + "Screen";
+        }
+        return unique;
     }
 
     private String toConstantName(String id) {
@@ -159,23 +170,24 @@ public class TestGenerator {
         
         for (String screenId : screenMap.keySet()) {
             Explorer.ScreenNode screen = screenMap.get(screenId);
+            List<Explorer.NavigationStep> pathFromRoot = screen.pathFromRoot();
             
             // Generate test with full navigation path
-            if (screen.pathFromRoot != null && !screen.pathFromRoot.isEmpty()) {
+            if (pathFromRoot != null && !pathFromRoot.isEmpty()) {
                 scenarioCount++;
                 String scenarioName = "Navigate to " + sanitizeName(screenId);
                 
                 feature.append("  @nav").append(scenarioCount).append("\n");
                 feature.append("  Scenario: ").append(scenarioName).append("\n");
                 feature.append("    # Path: ");
-                for (Explorer.NavigationStep step : screen.pathFromRoot) {
+                for (Explorer.NavigationStep step : pathFromRoot) {
                     feature.append(step.elementTapped).append(" → ");
                 }
                 feature.append("Screen\n");
                 feature.append("    Given the app is running\n");
                 
                 // Add each step in the path
-                for (Explorer.NavigationStep step : screen.pathFromRoot) {
+                for (Explorer.NavigationStep step : pathFromRoot) {
                     feature.append("    When I tap on \"").append(step.elementTapped).append("\"\n");
                 }
                 feature.append("    Then I should see a screen\n\n");
@@ -186,9 +198,9 @@ public class TestGenerator {
             }
             
             // Also generate tests for outgoing edges
-            for (Explorer.NavigationStep edge : screen.outgoingEdges) {
+            for (Explorer.NavigationStep edge : screen.outgoingEdges()) {
                 if (scenarioCount >= 20) break;
-                if (shouldSkipForNav(edge.elementTapped)) continue;
+                if (edge.isBack() || shouldSkipForNav(edge.elementTapped)) continue;
                 
                 scenarioCount++;
                 String scenarioName = "Tap " + sanitizeName(edge.elementTapped) + " navigates correctly";
@@ -198,8 +210,8 @@ public class TestGenerator {
                 feature.append("    Given the app is running\n");
                 
                 // First navigate to the source screen
-                if (screen.pathFromRoot != null) {
-                    for (Explorer.NavigationStep step : screen.pathFromRoot) {
+                if (pathFromRoot != null) {
+                    for (Explorer.NavigationStep step : pathFromRoot) {
                         feature.append("    When I tap on \"").append(step.elementTapped).append("\"\n");
                     }
                 }
@@ -228,6 +240,7 @@ public class TestGenerator {
 
         for (String screenId : screenMap.keySet()) {
             Explorer.ScreenNode screen = screenMap.get(screenId);
+            List<Explorer.NavigationStep> pathFromRoot = screen.pathFromRoot();
             
             for (Explorer.ElementInfo el : screen.elements) {
                 if (!el.isClickable) continue;
@@ -249,8 +262,8 @@ public class TestGenerator {
                 feature.append("    Given the app is running\n");
                 
                 // Navigate to screen first
-                if (screen.pathFromRoot != null && !screen.pathFromRoot.isEmpty()) {
-                    for (Explorer.NavigationStep step : screen.pathFromRoot) {
+                if (pathFromRoot != null && !pathFromRoot.isEmpty()) {
+                    for (Explorer.NavigationStep step : pathFromRoot) {
                         feature.append("    When I tap on \"").append(step.elementTapped).append("\"\n");
                     }
                 }
@@ -284,6 +297,7 @@ public class TestGenerator {
 
         for (String screenId : screenMap.keySet()) {
             Explorer.ScreenNode screen = screenMap.get(screenId);
+            List<Explorer.NavigationStep> pathFromRoot = screen.pathFromRoot();
             
             for (Explorer.ElementInfo el : screen.elements) {
                 if (!el.isTextField) continue;
@@ -300,13 +314,13 @@ public class TestGenerator {
                 feature.append("    Given the app is running\n");
                 
                 // Navigate to screen first
-                if (screen.pathFromRoot != null && !screen.pathFromRoot.isEmpty()) {
+                if (pathFromRoot != null && !pathFromRoot.isEmpty()) {
                     feature.append("    # Navigate to screen: ");
-                    for (Explorer.NavigationStep step : screen.pathFromRoot) {
+                    for (Explorer.NavigationStep step : pathFromRoot) {
                         feature.append(step.elementTapped).append(" → ");
                     }
                     feature.append("\n");
-                    for (Explorer.NavigationStep step : screen.pathFromRoot) {
+                    for (Explorer.NavigationStep step : pathFromRoot) {
                         feature.append("    When I tap on \"").append(step.elementTapped).append("\"\n");
                     }
                 }
@@ -335,11 +349,12 @@ public class TestGenerator {
         List<ElementWithPath> buttonElements = new ArrayList<>();
 
         for (Explorer.ScreenNode screen : screenMap.values()) {
+            List<Explorer.NavigationStep> pathFromRoot = screen.pathFromRoot();
             for (Explorer.ElementInfo el : screen.elements) {
                 if (el.id == null || !el.isClickable) continue;
                 String id = el.id.toLowerCase();
                 
-                ElementWithPath ewp = new ElementWithPath(el, screen.pathFromRoot);
+                ElementWithPath ewp = new ElementWithPath(el, pathFromRoot);
                 
                 if (id.contains("cart") || id.contains("add")) {
                     cartElements.add(ewp);
@@ -402,18 +417,19 @@ public class TestGenerator {
         // Use discovered navigation paths
         Set<String> visitedScreens = new HashSet<>();
         for (Explorer.ScreenNode screen : screenMap.values()) {
-            if (screen.pathFromRoot != null && !screen.pathFromRoot.isEmpty() && visitedScreens.size() < 3) {
+            List<Explorer.NavigationStep> pathFromRoot = screen.pathFromRoot();
+            if (pathFromRoot != null && !pathFromRoot.isEmpty() && visitedScreens.size() < 3) {
                 String key = screen.id;
                 if (visitedScreens.contains(key)) continue;
                 visitedScreens.add(key);
                 
                 feature.append("    # Journey to: ").append(truncatePath(screen.id)).append("\n");
-                for (Explorer.NavigationStep step : screen.pathFromRoot) {
+                for (Explorer.NavigationStep step : pathFromRoot) {
                     feature.append("    When I tap on \"").append(step.elementTapped).append("\"\n");
                 }
                 feature.append("    Then I should see a screen\n");
                 // Go back to start
-                for (int i = 0; i < screen.pathFromRoot.size(); i++) {
+                for (int i = 0; i < pathFromRoot.size(); i++) {
                     feature.append("    And I go back\n");
                 }
             }
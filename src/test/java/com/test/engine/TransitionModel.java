@@ -0,0 +1,153 @@
+package com.test.engine;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.regex.Pattern;
+
+// Online estimate of how likely a tap is to find something new (a screen, or popup and menu
+// items), learned from every tap and kept across runs. An element is described by three
+// features: its resource-id pattern (digit runs folded, so start1IV..start5IV or "Rp 12.000"
+// labels share one), its class and its horizontal position bucket. Each feature counts taps
+// and hits; the prediction adds up how far each smoothed rate sits from the overall rate
+// (naive Bayes in log-odds), so one well-known dud pattern outweighs two neutral features.
+//
+// Stored as tab separated records in GraphStore format:
+//   F feature taps hits   "*" is the overall count
+public class TransitionModel {
+
+    private static final String HEADER = "# transition model v1";
+    private static final String OVERALL = "*";
+    private static final Pattern DIGITS = Pattern.compile("\\d+");
+    // Pseudo-taps pulling a sparse feature towards the overall rate
+    private static final double PRIOR_TAPS = 2;
+
+    private final Path file;
+    private final double minYield;
+    private final int skipAfter;
+    private final Map<String, Stat> stats = new HashMap<>();
+    private int skipped;
+
+    public TransitionModel(Path file, double minYield, int skipAfter) {
+        this.file = file;
+        this.minYield = minYield;
+        this.skipAfter = skipAfter;
+    }
+
+    // explorer.model (empty = not persisted), explorer.minYield, explorer.skipAfter (0 = never skip)
+    public static TransitionModel fromProperties() {
+        String path = Session.property("explorer.model", "target/exploration/model.tsv");
+        return new TransitionModel(path.isEmpty() ? null : Paths.get(path),
+            Double.parseDouble(Session.property("explorer.minYield", "0.1")),
+            Integer.parseInt(Session.property("explorer.skipAfter", "5")));
+    }
+
+    // Most specific first: the id pattern is the only feature that can justify a skip
+    static List<String> features(Explorer.ElementInfo el) {
+        List<String> features = new ArrayList<>(3);
+        String name = el.resourceId != null && !el.resourceId.isEmpty()
+            ? el.resourceId.substring(el.resourceId.indexOf('/') + 1)  // "pkg:id/start1IV" -> "start1IV"
+            : el.id;
+        if (name != null) features.add("r:" + DIGITS.matcher(name).replaceAll("#"));
+        if (el.className != null) features.add("c:" + el.className);
+        String key = el.key();
+        String bucket = key.substring(key.lastIndexOf('|') + 1);
+        if (!bucket.equals("?")) features.add("x:" + bucket);
+        return features;
+    }
+
+    // Probability that tapping an element with these features finds something new
+    public synchronized double predict(List<String> features) {
+        double prior = rate(stats.get(OVERALL), 0.5);
+        double logOdds = logit(prior);
+        for (String feature : features) {
+            Stat stat = stats.get(feature);
+            if (stat != null) logOdds += logit(rate(stat, prior)) - logit(prior);
+        }
+        return 1 / (1 + Math.exp(-logOdds));
+    }
+
+    // True for a predicted dud whose id pattern has been tapped often enough to trust that
+    public synchronized boolean skips(List<String> features) {
+        if (skipAfter <= 0 || features.isEmpty() || !features.get(0).startsWith("r:")) return false;
+        Stat pattern = stats.get(features.get(0));
+        if (pattern == null || pattern.taps < skipAfter || predict(features) >= minYield) return false;
+        skipped++;
+        return true;
+    }
+
+    public synchronized void record(List<String> features, boolean yielded) {
+        count(OVERALL, yielded);
+        for (String feature : features) count(feature, yielded);
+    }
+
+    private void count(String feature, boolean yielded) {
+        Stat stat = stats.computeIfAbsent(feature, k -> new Stat());
+        stat.taps++;
+        if (yielded) stat.hits++;
+    }
+
+    // Hits per tap, smoothed towards `prior` so a feature seen once is not 0% or 100%
+    private static double rate(Stat stat, double prior) {
+        if (stat == null) return prior;
+        return (stat.hits + PRIOR_TAPS * prior) / (stat.taps + PRIOR_TAPS);
+    }
+
+    private static double logit(double p) {
+        return Math.log(p / (1 - p));
+    }
+
+    public synchronized void load() {
+        if (file == null || !Files.exists(file)) return;
+        try (BufferedReader in = Files.newBufferedReader(file)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                String[] f = line.split("\t", -1);
+                if (!f[0].equals("F") || f.length < 4) continue;  // unknown record from a newer format
+                Stat stat = stats.computeIfAbsent(GraphStore.unescape(f[1]), k -> new Stat());
+                stat.taps = Integer.parseInt(f[2]);
+                stat.hits = Integer.parseInt(f[3]);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot load transition model from " + file, e);
+        }
+    }
+
+    public synchronized void save() {
+        if (file == null) return;
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (BufferedWriter out = Files.newBufferedWriter(tmp)) {
+                out.write(HEADER);
+                out.newLine();
+                for (Map.Entry<String, Stat> entry : stats.entrySet()) {
+                    Stat stat = entry.getValue();
+                    GraphStore.write(out, "F", entry.getKey(), String.valueOf(stat.taps), String.valueOf(stat.hits));
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot save transition model to " + file, e);
+        }
+    }
+
+    public synchronized String summary() {
+        Stat overall = stats.get(OVERALL);
+        int taps = overall != null ? overall.taps : 0;
+        return "Transition model: " + taps + " taps learned over " + Math.max(0, stats.size() - 1)
+            + " features, " + String.format("%.0f%%", rate(overall, 0.5) * 100) + " found something new, "
+            + skipped + " predicted duds skipped";
+    }
+
+    private static final class Stat {
+        int taps;
+        int hits;
+    }
+}
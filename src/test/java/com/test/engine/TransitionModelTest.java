@@ -0,0 +1,78 @@
+package com.test.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class TransitionModelTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void featuresFoldDigitsAndBucketThePosition() {
+        Explorer.ElementInfo star = GraphStoreTest.element("star3", "com.app:id/start3IV", "android.widget.ImageView", 600);
+        assertThat(TransitionModel.features(star))
+            .containsExactly("r:start#IV", "c:android.widget.ImageView", "x:2");
+
+        Explorer.ElementInfo label = new Explorer.ElementInfo();
+        label.id = "Rp 12.000";
+        label.className = "android.widget.TextView";
+        assertThat(TransitionModel.features(label)).containsExactly("r:Rp #.#", "c:android.widget.TextView");
+    }
+
+    @Test
+    void predictionFollowsRecordedOutcomes() {
+        TransitionModel model = new TransitionModel(null, 0.1, 5);
+        List<String> dud = List.of("r:start#IV", "c:android.widget.ImageView");
+        List<String> useful = List.of("r:menuBtn", "c:android.widget.ImageView");
+        assertThat(model.predict(dud)).isCloseTo(0.5, within(1e-9));
+
+        for (int i = 0; i < 6; i++) {
+            model.record(dud, false);
+            model.record(useful, true);
+        }
+
+        assertThat(model.predict(dud)).isLessThan(0.2);
+        assertThat(model.predict(useful)).isGreaterThan(0.8);
+        assertThat(model.predict(List.of("r:unknown"))).isCloseTo(0.5, within(1e-9));
+    }
+
+    @Test
+    void skipsOnlyWellKnownDudPatterns() {
+        TransitionModel model = new TransitionModel(null, 0.1, 5);
+        List<String> dud = List.of("r:start#IV");
+        for (int i = 0; i < 4; i++) model.record(dud, false);
+        model.record(List.of("r:menuBtn"), true);
+        assertThat(model.skips(dud)).isFalse();
+
+        for (int i = 0; i < 4; i++) model.record(dud, false);
+        assertThat(model.skips(dud)).isTrue();
+        // Without an id pattern there is nothing specific enough to skip on
+        assertThat(model.skips(List.of("c:android.widget.ImageView"))).isFalse();
+        assertThat(new TransitionModel(null, 0.1, 0).skips(dud)).isFalse();
+        assertThat(model.summary()).endsWith("1 predicted duds skipped");
+    }
+
+    @Test
+    void saveAndLoadKeepTheCounts() {
+        Path file = dir.resolve("model.tsv");
+        TransitionModel model = new TransitionModel(file, 0.1, 5);
+        List<String> features = List.of("r:tab\tname", "x:1");
+        model.record(features, true);
+        model.record(features, false);
+        model.record(List.of("r:other"), false);
+        model.save();
+
+        TransitionModel loaded = new TransitionModel(file, 0.1, 5);
+        loaded.load();
+
+        assertThat(loaded.predict(features)).isCloseTo(model.predict(features), within(1e-9));
+        assertThat(loaded.summary()).startsWith("Transition model: 3 taps learned over 3 features");
+    }
+}
@@ -30,13 +30,13 @@ public class MainNoItemsCatalogScreen {
 
     public void navigateHere() {
         app.tap("id:sortIV");
-        app.pause(1);
+        app.settle();
         app.tap("id:nameAscCL");
-        app.pause(1);
+        app.settle();
         app.tap("id:cartRL");
-        app.pause(1);
+        app.settle();
         app.tap("id:menuIV");
-        app.pause(1);
+        app.settle();
     }
 
     public boolean isDisplayed() {
@@ -25,11 +25,11 @@ public class MainNoItemsScreen {
 
     public void navigateHere() {
         app.tap("id:sortIV");
-        app.pause(1);
+        app.settle();
         app.tap("id:nameAscCL");
-        app.pause(1);
+        app.settle();
         app.tap("id:cartRL");
-        app.pause(1);
+        app.settle();
     }
 
     public boolean isDisplayed() {
@@ -30,7 +30,7 @@ public class MainSortbyNameAscendingScreen {
 
     public void navigateHere() {
         app.tap("id:sortIV");
-        app.pause(1);
+        app.settle();
     }
 
     public boolean isDisplayed() {
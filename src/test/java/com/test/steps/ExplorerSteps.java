@@ -1,9 +1,13 @@
 package com.test.steps;
 
+import com.test.engine.Checkpoint;
 import com.test.engine.Explorer;
+import com.test.engine.Session;
 import com.test.engine.TestGenerator;
 import io.cucumber.java.en.*;
 
+import java.nio.file.Paths;
+
 public class ExplorerSteps {
 
     private Explorer explorer;
@@ -20,6 +24,31 @@ public class ExplorerSteps {
         explorer.maxDepth(depth).explore();
     }
 
+    @When("I explore the app incrementally with depth {int}")
+    public void exploreAppIncrementally(int depth) {
+        explorer = new Explorer();
+        explorer.maxDepth(depth).incremental(true).explore();
+    }
+
+    @When("I explore the app with depth {int} for {int} minutes")
+    public void exploreAppWithinBudget(int depth, int minutes) {
+        explorer = new Explorer();
+        explorer.maxDepth(depth).timeLimit(minutes).explore();
+    }
+
+    @When("I explore the app with depth {int} on {int} devices")
+    public void exploreAppInParallel(int depth, int devices) {
+        explorer = new Explorer();
+        explorer.maxDepth(depth).parallel(devices).explore();
+    }
+
+    @When("I resume the exploration with depth {int}")
+    public void resumeExploration(int depth) {
+        explorer = new Explorer();
+        explorer.maxDepth(depth).resume(new Checkpoint(Paths.get(
+            Session.property("explorer.checkpoint", "target/exploration/checkpoint"))));
+    }
+
     @When("I explore and generate tests with depth {int}")
     public void exploreAndGenerateTests(int depth) {
         explorer = new Explorer();
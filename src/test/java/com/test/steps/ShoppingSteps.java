@@ -3,6 +3,8 @@ package com.test.steps;
 import com.test.engine.Session;
 import io.cucumber.java.en.*;
 
+import java.util.List;
+
 
 public class ShoppingSteps {
 
@@ -11,7 +13,7 @@ public class ShoppingSteps {
     @Given("I am on the products page")
     public void iAmOnProductsPage() {
         // Wait for products page to load
-        app.find("xpath://*[contains(@text, 'Products')]");
+        app.expect("text containing 'Products'", snap -> snap.containsText("Products"));
     }
 
     @Given("I am on a product detail page")
@@ -19,107 +21,106 @@ public class ShoppingSteps {
         // Navigate to product detail if not there
         if (!app.exists("id:cartBt")) {
             app.tap("id:productIV");
-            app.pause(1);
+            app.settle();
         }
     }
 
     @Given("the app is running")
     public void theAppIsRunning() {
         // App should already be running from hooks
-        app.pause(1);
+        app.settle();
     }
 
     @When("I tap on {string}")
     public void iTapOn(String elementId) {
+        // Generated ids may already carry a strategy (text:, desc:, class:)
+        List<String> locators = elementId.contains(":")
+            ? List.of(elementId)
+            : List.of("id:" + elementId, "text:" + elementId);
         try {
-            app.tap("id:" + elementId);
+            app.tapFirst(elementId, locators);
         } catch (Exception e) {
-            // Try by text if ID fails
-            try {
-                app.tap("text:" + elementId);
-            } catch (Exception e2) {
-                throw new RuntimeException("Cannot find element: " + elementId, e);
-            }
+            throw new RuntimeException("Cannot find element: " + elementId, e);
         }
-        app.pause(1);
+        app.settle();
     }
 
     @When("I tap on {string} {int} times")
     public void iTapOnTimes(String elementId, int times) {
-        for (int i = 0; i < times; i++) {
-            app.tap("id:" + elementId);
-            app.pause(1);
-        }
+        // One actions request for all taps instead of a find + click per tap
+        app.gestures().tap("id:" + elementId, times).perform();
+        app.settle();
     }
 
     @When("I enter {string} in {string}")
     public void iEnterIn(String text, String elementId) {
         app.type("id:" + elementId, text);
-        app.pause(1);
+        app.settle();
     }
 
     @Then("I should see {string}")
     public void iShouldSee(String text) {
-        app.find("text:" + text);
+        app.expect("text:" + text);
     }
 
     @Then("I should see a screen")
     public void iShouldSeeAScreen() {
         // Just verify we didn't crash
-        app.pause(1);
+        app.settle();
     }
 
     @Then("the app should not crash")
     public void theAppShouldNotCrash() {
         // If we got here, the app didn't crash
-        app.pause(1);
+        app.settle();
     }
 
     @Then("I go back")
     public void iGoBack() {
-        app.driver().navigate().back();
-        app.pause(1);
+        app.back();
+        app.settle();
     }
 
     @Then("the field should contain {string}")
     public void fieldShouldContain(String expectedText) {
         // Verification - just ensure no crash for now
-        app.pause(1);
+        app.settle();
     }
 
     @Then("I should see the menu options")
     public void iShouldSeeMenuOptions() {
         // Menu is visible if we can find menu items
-        app.find("xpath://*[@resource-id]");
+        app.expect("menu items", snap -> snap.nodes().stream()
+            .anyMatch(n -> n.resourceId != null && !n.resourceId.isEmpty()));
     }
 
     @Then("I should be back on products page")
     public void iShouldBeBackOnProductsPage() {
-        app.find("xpath://*[contains(@text, 'Products')]");
+        app.expect("text containing 'Products'", snap -> snap.containsText("Products"));
     }
 
     @Then("the cart should have {int} item")
     public void cartShouldHaveItems(int count) {
-        // Look for cart badge or count
+        // Look for cart badge or count, otherwise at least the cart icon
         String cartText = String.valueOf(count);
-        if (!app.exists("text:" + cartText)) {
-            // Try finding cart icon and verify
-            app.find("id:cartIV");
-        }
+        app.expect("cart with " + count + " item(s)",
+            snap -> snap.has("text:" + cartText) || snap.has("id:cartIV"));
     }
 
     @Then("the product should have {int} star rating")
     public void productShouldHaveRating(int stars) {
-        // Verify rating by checking selected stars
+        // Verify rating by checking selected stars, all against one snapshot
+        String[] starIds = new String[stars];
         for (int i = 1; i <= stars; i++) {
-            app.find("id:start" + i + "IV");
+            starIds[i - 1] = "id:start" + i + "IV";
         }
+        app.expect(starIds);
     }
 
     @Then("the quantity should be {int}")
     public void quantityShouldBe(int qty) {
         String qtyText = String.valueOf(qty);
-        app.find("xpath://*[contains(@text, '" + qtyText + "')]");
+        app.expect("quantity " + qtyText, snap -> snap.containsText(qtyText));
     }
 }
 
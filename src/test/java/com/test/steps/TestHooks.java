@@ -1,20 +1,54 @@
 package com.test.steps;
 
+import com.test.engine.CrashWatcher;
+import com.test.engine.Metrics;
 import com.test.engine.Session;
 import io.cucumber.java.After;
+import io.cucumber.java.AfterAll;
 import io.cucumber.java.Before;
+import io.cucumber.java.BeforeAll;
+import io.cucumber.java.Scenario;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 
 public class TestHooks {
 
+    @BeforeAll
+    public static void begin() throws IOException {
+        Files.deleteIfExists(Paths.get("target/metrics/scenarios.jsonl"));
+    }
+
     @Before
     public void start() {
         Session.current().open();
-        Session.current().pause(2); // wait for app splash
+        Session.current().settle(); // wait for app splash
+        Session.current().crashes().clear();
     }
 
     @After
-    public void stop() {
-        Session.current().close();
+    public void stop(Scenario scenario) {
+        Session app = Session.current();
+        // Crashes from logcat, with their stack traces, end up in the scenario report
+        for (CrashWatcher.Event event : app.crashes().drain()) {
+            if (event.isCrash()) scenario.log(event.toString());
+        }
+        System.out.println(app.metrics().summary("Commands: " + scenario.getName()));
+        app.metrics().append(Paths.get("target/metrics/scenarios.jsonl"), scenario.getName());
+        app.metrics().reset();
+        if (app.handleHits() + app.handleMisses() > 0) {
+            System.out.println("Element cache: " + app.handleHits() + " hits, " + app.handleMisses()
+                + " misses, " + app.handleStale() + " stale");
+        }
+        // Resets the app and keeps the driver when reuse=true, otherwise quits it
+        app.release();
     }
-}
 
+    @AfterAll
+    public static void shutdown() {
+        Session.closeAll();
+        System.out.println(Metrics.run().summary("Commands: whole run"));
+        Metrics.run().write(Paths.get("target/metrics/commands.json"));
+    }
+}